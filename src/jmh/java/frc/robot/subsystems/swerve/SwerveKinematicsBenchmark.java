@@ -0,0 +1,49 @@
+package frc.robot.subsystems.swerve;
+
+import static frc.robot.util.BenchmarkInputs.kDt;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import edu.wpi.first.math.kinematics.ChassisSpeeds;
+import edu.wpi.first.math.kinematics.SwerveModuleState;
+import frc.robot.util.BenchmarkEnvironment;
+import frc.robot.util.BenchmarkInputs;
+
+/** The per-loop drive math in {@link Swerve#periodic()} outside of setpoint generation. */
+@State(Scope.Thread)
+public class SwerveKinematicsBenchmark {
+    private ChassisSpeeds[] m_speeds;
+    private int m_index;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        BenchmarkEnvironment.install();
+        m_speeds = BenchmarkInputs.chassisSpeeds(BenchmarkInputs.kSequenceLength);
+        m_index = 0;
+    }
+
+    private ChassisSpeeds next() {
+        ChassisSpeeds speeds = m_speeds[m_index];
+        m_index = (m_index + 1) % m_speeds.length;
+        return speeds;
+    }
+
+    @Benchmark
+    public SwerveModuleState[] toSwerveModuleStates() {
+        return Swerve.m_kinematics.toSwerveModuleStates(next());
+    }
+
+    @Benchmark
+    public ChassisSpeeds correctForTwist() {
+        return Swerve.correctForTwist(next(), kDt);
+    }
+
+    @Benchmark
+    public SwerveModuleState[] correctForTwistThenKinematics() {
+        return Swerve.m_kinematics.toSwerveModuleStates(Swerve.correctForTwist(next(), kDt));
+    }
+}
@@ -0,0 +1,43 @@
+package frc.robot.util;
+
+import edu.wpi.first.math.MathShared;
+import edu.wpi.first.math.MathSharedStore;
+import edu.wpi.first.math.MathUsageId;
+
+/**
+ * Replaces WPILib's math hooks so the benchmarks never call into the HAL. Timestamps come from a
+ * simulated clock that the benchmarks step by one loop at a time.
+ */
+public final class BenchmarkEnvironment {
+    private static double m_timestamp = 0.0;
+    private static boolean m_installed = false;
+
+    private BenchmarkEnvironment() {
+    }
+
+    public static synchronized void install() {
+        if (m_installed) {
+            return;
+        }
+        MathSharedStore.setMathShared(new MathShared() {
+            @Override
+            public void reportError(String error, StackTraceElement[] stackTrace) {
+            }
+
+            @Override
+            public void reportUsage(MathUsageId id, int count) {
+            }
+
+            @Override
+            public double getTimestamp() {
+                return m_timestamp;
+            }
+        });
+        m_installed = true;
+    }
+
+    /** Moves the simulated clock forward. */
+    public static void step(double dt) {
+        m_timestamp += dt;
+    }
+}
@@ -0,0 +1,142 @@
+package frc.robot.util;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.kinematics.ChassisSpeeds;
+import edu.wpi.first.math.kinematics.SwerveDriveKinematics;
+import edu.wpi.first.math.kinematics.SwerveModulePosition;
+import edu.wpi.first.math.kinematics.SwerveModuleState;
+import edu.wpi.first.math.util.Units;
+
+/**
+ * Inputs shared by the benchmarks. Chassis speeds come from the generated PathPlanner CSVs in the
+ * deploy directory, stitched together from random windows and jittered with a fixed seed so every
+ * run sees the same sequence.
+ */
+public final class BenchmarkInputs {
+    public static final long kSeed = 5557;
+    public static final double kDt = 0.02;
+    public static final int kSequenceLength = 4096;
+
+    // Longest contiguous stretch taken from one path before jumping to another
+    private static final int kMaxWindow = 150;
+    // Joystick-like noise added on top of the path speeds
+    private static final double kLinearJitter = 0.05; // m/s
+    private static final double kAngularJitter = 0.1; // rad/s
+
+    private BenchmarkInputs() {
+    }
+
+    /** @return A fixed-seed sequence of robot relative speeds. */
+    public static ChassisSpeeds[] chassisSpeeds(int length) {
+        List<ChassisSpeeds[]> paths = loadPaths();
+        Random random = new Random(kSeed);
+
+        ChassisSpeeds[] sequence = new ChassisSpeeds[length];
+        int filled = 0;
+        while (filled < length) {
+            ChassisSpeeds[] path = paths.get(random.nextInt(paths.size()));
+            int start = random.nextInt(path.length);
+            int window = Math.min(1 + random.nextInt(kMaxWindow), path.length - start);
+            for (int i = start; i < start + window && filled < length; i++) {
+                sequence[filled++] = new ChassisSpeeds(
+                        path[i].vxMetersPerSecond + random.nextGaussian() * kLinearJitter,
+                        path[i].vyMetersPerSecond + random.nextGaussian() * kLinearJitter,
+                        path[i].omegaRadiansPerSecond + random.nextGaussian() * kAngularJitter);
+            }
+        }
+        return sequence;
+    }
+
+    /**
+     * Integrates the speeds through the kinematics to get the module positions the drive would
+     * report each loop.
+     */
+    public static SwerveModulePosition[][] modulePositions(SwerveDriveKinematics kinematics,
+            ChassisSpeeds[] speeds) {
+        SwerveModulePosition[][] positions = new SwerveModulePosition[speeds.length][];
+        double[] distances = new double[4];
+        for (int i = 0; i < speeds.length; i++) {
+            SwerveModuleState[] states = kinematics.toSwerveModuleStates(speeds[i]);
+            positions[i] = new SwerveModulePosition[states.length];
+            for (int j = 0; j < states.length; j++) {
+                distances[j] += states[j].speedMetersPerSecond * kDt;
+                positions[i][j] = new SwerveModulePosition(distances[j], states[j].angle);
+            }
+        }
+        return positions;
+    }
+
+    /** Integrates the commanded rotation to get the gyro yaw for each loop. */
+    public static Rotation2d[] gyroAngles(ChassisSpeeds[] speeds) {
+        Rotation2d[] angles = new Rotation2d[speeds.length];
+        double yaw = 0.0;
+        for (int i = 0; i < speeds.length; i++) {
+            yaw += speeds[i].omegaRadiansPerSecond * kDt;
+            angles[i] = Rotation2d.fromRadians(yaw);
+        }
+        return angles;
+    }
+
+    private static List<ChassisSpeeds[]> loadPaths() {
+        Path csvDir = Paths.get(System.getProperty("benchmark.deployDir", "src/main/deploy"),
+                "pathplanner", "generatedCSV");
+        List<Path> files;
+        try (Stream<Path> listing = Files.list(csvDir)) {
+            files = listing.filter(p -> p.toString().endsWith(".csv")).sorted()
+                    .collect(Collectors.toList());
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not list paths in " + csvDir, e);
+        }
+
+        List<ChassisSpeeds[]> paths = new ArrayList<>();
+        for (Path file : files) {
+            ChassisSpeeds[] path = loadPath(file);
+            if (path.length > 0) {
+                paths.add(path);
+            }
+        }
+        if (paths.isEmpty()) {
+            throw new IllegalStateException("No paths found in " + csvDir);
+        }
+        return paths;
+    }
+
+    /**
+     * Columns: time, x, y, heading (deg), velocity, acceleration, curvature, holonomic rotation
+     * (deg), angular velocity (deg/s), holonomic angular velocity (deg/s).
+     */
+    private static ChassisSpeeds[] loadPath(Path file) {
+        List<ChassisSpeeds> speeds = new ArrayList<>();
+        try {
+            for (String line : Files.readAllLines(file)) {
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                String[] columns = line.split(",");
+                double heading = Units.degreesToRadians(Double.parseDouble(columns[3].trim()));
+                double velocity = Double.parseDouble(columns[4].trim());
+                double rotation = Double.parseDouble(columns[7].trim());
+                double omega = Units.degreesToRadians(Double.parseDouble(columns[9].trim()));
+                speeds.add(ChassisSpeeds.fromFieldRelativeSpeeds(
+                        velocity * Math.cos(heading),
+                        velocity * Math.sin(heading),
+                        omega,
+                        Rotation2d.fromDegrees(rotation)));
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not read " + file, e);
+        }
+        return speeds.toArray(new ChassisSpeeds[0]);
+    }
+}
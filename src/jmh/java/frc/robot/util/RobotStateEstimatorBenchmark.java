@@ -0,0 +1,56 @@
+package frc.robot.util;
+
+import static frc.robot.util.BenchmarkInputs.kDt;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.kinematics.ChassisSpeeds;
+import edu.wpi.first.math.kinematics.SwerveModulePosition;
+import frc.robot.subsystems.swerve.Swerve;
+
+/** Odometry updates, with and without a gyro, fed one loop of module positions per op. */
+@State(Scope.Thread)
+public class RobotStateEstimatorBenchmark {
+    private RobotStateEstimator m_estimator;
+    private SwerveModulePosition[][] m_positions;
+    private Rotation2d[] m_gyroAngles;
+    private int m_index;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        BenchmarkEnvironment.install();
+        m_estimator = new RobotStateEstimator(false);
+
+        ChassisSpeeds[] speeds = BenchmarkInputs.chassisSpeeds(BenchmarkInputs.kSequenceLength);
+        m_positions = BenchmarkInputs.modulePositions(Swerve.m_kinematics, speeds);
+        m_gyroAngles = BenchmarkInputs.gyroAngles(speeds);
+        m_index = 0;
+    }
+
+    private int next() {
+        int index = m_index;
+        m_index = (m_index + 1) % m_positions.length;
+        BenchmarkEnvironment.step(kDt);
+        return index;
+    }
+
+    @Benchmark
+    public Pose2d addDriveDataWithGyro() {
+        int i = next();
+        m_estimator.addDriveData(m_gyroAngles[i], m_positions[i]);
+        return m_estimator.getPose();
+    }
+
+    @Benchmark
+    public Pose2d addDriveDataWithoutGyro() {
+        int i = next();
+        m_estimator.addDriveData(m_positions[i]);
+        return m_estimator.getPose();
+    }
+}
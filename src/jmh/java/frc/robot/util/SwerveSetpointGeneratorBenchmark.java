@@ -0,0 +1,82 @@
+package frc.robot.util;
+
+import static frc.robot.util.BenchmarkInputs.kDt;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import edu.wpi.first.math.kinematics.ChassisSpeeds;
+import edu.wpi.first.math.kinematics.SwerveModuleState;
+import frc.robot.subsystems.swerve.Swerve;
+import frc.robot.subsystems.swerve.SwerveConstants;
+import frc.robot.util.SwerveSetpointGenerator.DriveLimitSolver;
+import frc.robot.util.SwerveSetpointGenerator.KinematicLimits;
+
+/**
+ * Setpoint generation against the path following limits, for every solver combination at each
+ * steering tolerance.
+ */
+@State(Scope.Thread)
+public class SwerveSetpointGeneratorBenchmark {
+
+    @Param({ "QUADRATIC", "REGULA_FALSI" })
+    public DriveLimitSolver driveLimitSolver;
+
+    @Param({ "REGULA_FALSI", "ILLINOIS", "ITP" })
+    public RootFinder.Type steeringRootFinder;
+
+    // Applied to every steering root finder, so they are compared at the same accuracy
+    @Param({ "0.0", "1e-4" })
+    public double steeringTolerance;
+
+    private SwerveSetpointGenerator m_generator;
+    private KinematicLimits m_limits;
+    private ChassisSpeeds[] m_speeds;
+    private SwerveSetpoint m_setpoint;
+    private int m_index;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        BenchmarkEnvironment.install();
+        m_generator = new SwerveSetpointGenerator(Swerve.m_kinematics,
+                SwerveConstants.kSwerveModuleLocations);
+
+        // Copy so the shared constants stay untouched
+        m_limits = new KinematicLimits();
+        m_limits.kMaxDriveVelocity = SwerveConstants.kPathFollowingLimits.kMaxDriveVelocity;
+        m_limits.kMaxDriveAcceleration = SwerveConstants.kPathFollowingLimits.kMaxDriveAcceleration;
+        m_limits.kMaxAzimuthVelocity = SwerveConstants.kPathFollowingLimits.kMaxAzimuthVelocity;
+        m_limits.kMaxAngularVelocity = SwerveConstants.kPathFollowingLimits.kMaxAngularVelocity;
+        m_limits.kDriveLimitSolver = driveLimitSolver;
+        m_limits.kSteeringRootFinder = steeringRootFinder;
+        m_limits.kSteeringTolerance = steeringTolerance;
+
+        m_speeds = BenchmarkInputs.chassisSpeeds(BenchmarkInputs.kSequenceLength);
+        m_setpoint = new SwerveSetpoint(new ChassisSpeeds(), new SwerveModuleState[] {
+                new SwerveModuleState(), new SwerveModuleState(), new SwerveModuleState(),
+                new SwerveModuleState() });
+        m_index = 0;
+    }
+
+    private ChassisSpeeds next() {
+        ChassisSpeeds speeds = m_speeds[m_index];
+        m_index = (m_index + 1) % m_speeds.length;
+        return speeds;
+    }
+
+    @Benchmark
+    public SwerveSetpoint generateSetpoint() {
+        m_setpoint = m_generator.generateSetpoint(m_limits, m_setpoint, next(), kDt);
+        return m_setpoint;
+    }
+
+    @Benchmark
+    public SwerveSetpoint generateSetpointInPlace() {
+        m_generator.generateSetpoint(m_limits, m_setpoint, next(), kDt, m_setpoint);
+        return m_setpoint;
+    }
+}
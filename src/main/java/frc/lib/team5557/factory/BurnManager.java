@@ -1,26 +1,269 @@
 package frc.lib.team5557.factory;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+
 import com.revrobotics.CANSparkMax;
+import edu.wpi.first.wpilibj.RobotBase;
 import edu.wpi.first.wpilibj.Timer;
+import frc.lib.team5557.factory.SparkMaxFactory.FrameProfile;
+import frc.lib.team5557.factory.SparkMaxFactory.SparkMaxConfiguration;
 
+/**
+ * Restores and burns a SparkMax only when its configuration changed since the last burn. A hash of
+ * each configuration is saved per CAN ID after burning, and a controller whose hash matches keeps
+ * its flash untouched. The settings are still written every boot, so the hash only decides whether
+ * flash is worth rewriting.
+ *
+ * <p>
+ * The hash is keyed by CAN ID, so before skipping a burn a few settings are read back to check the
+ * controller really holds its configuration. That catches a controller swapped in with the same ID.
+ *
+ * <p>
+ * Every setting that ends up in flash belongs in the configuration, IOs should not write their own
+ * before burning. Bump {@link #kConfigVersion} after changing what the factory writes, or delete the
+ * hash file, to burn every controller again.
+ */
 public class BurnManager {
-	private static boolean shouldBurn = true;
+	public static final int kConfigVersion = 2;
+	public static final Path kHashFile = Paths.get("/home/lvuser/sparkmax_config_hashes.properties");
+	// Parameters are stored as floats on the controller
+	private static final double kReadBackTolerance = 1e-3;
+
+	/** The flash operations of one controller, so the burn logic can run against a fake device. */
+	public interface FlashIO {
+		void restoreFactoryDefaults();
+
+		void burnFlash();
+
+		/** @return Whether a cheap read back of the controller agrees with this configuration. */
+		boolean matches(SparkMaxConfiguration config);
+	}
+
+	public static class FlashIOSparkMax implements FlashIO {
+		private final CANSparkMax m_sparkMax;
+
+		public FlashIOSparkMax(CANSparkMax sparkMax) {
+			m_sparkMax = sparkMax;
+		}
+
+		@Override
+		public void restoreFactoryDefaults() {
+			m_sparkMax.restoreFactoryDefaults();
+			Timer.delay(0.2);
+		}
 
-	public static void restoreFactoryDefaults(CANSparkMax sparkMax) {
-		if (shouldBurn) {
-			sparkMax.restoreFactoryDefaults();
+		@Override
+		public void burnFlash() {
+			m_sparkMax.burnFlash();
 			Timer.delay(0.2);
 		}
+
+		/** Reads back the settings a factory reset clears that every configuration sets. */
+		@Override
+		public boolean matches(SparkMaxConfiguration config) {
+			if (m_sparkMax.getInverted() != config.kShouldInvert
+					|| m_sparkMax.getIdleMode() != config.kIdleMode) {
+				return false;
+			}
+			if (!Double.isNaN(config.kVoltageCompensation)
+					&& Math.abs(m_sparkMax.getVoltageCompensationNominalVoltage()
+							- config.kVoltageCompensation) > kReadBackTolerance) {
+				return false;
+			}
+			return Math.abs(m_sparkMax.getOpenLoopRampRate() - config.kOpenLoopRampRate) <= kReadBackTolerance
+					&& Math.abs(m_sparkMax.getClosedLoopRampRate() - config.kClosedLoopRampRate) <= kReadBackTolerance;
+		}
+	}
+
+	/** Counts flash operations instead of talking to a controller. */
+	public static class FlashIOSim implements FlashIO {
+		public int restoreCount = 0;
+		public int burnCount = 0;
+		// False stands in for a different controller with the same CAN ID
+		public boolean holdsConfiguration = true;
+
+		@Override
+		public void restoreFactoryDefaults() {
+			restoreCount++;
+		}
+
+		@Override
+		public void burnFlash() {
+			burnCount++;
+			holdsConfiguration = true;
+		}
+
+		@Override
+		public boolean matches(SparkMaxConfiguration config) {
+			return holdsConfiguration;
+		}
+	}
+
+	private static BurnManager instance = null;
+
+	// Null keeps the hashes in memory only
+	private final Path m_hashFile;
+	private final Properties m_burnedHashes = new Properties();
+	// Hashes of controllers restored this boot, saved once they are burned
+	private final Map<Integer, String> m_pendingHashes = new HashMap<>();
+
+	public static synchronized BurnManager getInstance() {
+		if (instance == null) {
+			instance = new BurnManager(RobotBase.isReal() ? kHashFile : null);
+		}
+		return instance;
+	}
+
+	public BurnManager(Path hashFile) {
+		m_hashFile = hashFile;
+		if (hashFile != null && Files.exists(hashFile)) {
+			try (InputStream input = Files.newInputStream(hashFile)) {
+				m_burnedHashes.load(input);
+			} catch (IOException e) {
+				System.out.println("[BurnManager] Failed to read " + hashFile + ": " + e);
+			}
+		}
+	}
+
+	public static void restoreFactoryDefaults(CANSparkMax sparkMax, SparkMaxConfiguration config) {
+		getInstance().restoreIfChanged(sparkMax.getDeviceId(), config, new FlashIOSparkMax(sparkMax));
 	}
 
 	public static void burnFlash(CANSparkMax sparkMax) {
-		if (shouldBurn) {
-			sparkMax.burnFlash();
-			Timer.delay(0.2);
+		getInstance().burnIfChanged(sparkMax.getDeviceId(), new FlashIOSparkMax(sparkMax));
+	}
+
+	/**
+	 * Restores the controller to factory defaults unless its configuration matches the last burn and
+	 * the controller reads back as holding it.
+	 *
+	 * @return Whether the controller was restored and will be burned.
+	 */
+	public boolean restoreIfChanged(int deviceId, SparkMaxConfiguration config, FlashIO device) {
+		String hash = hash(config);
+		boolean burned;
+		synchronized (this) {
+			burned = hash.equals(m_burnedHashes.getProperty(Integer.toString(deviceId)));
+		}
+		if (burned && device.matches(config)) {
+			return false;
+		}
+
+		synchronized (this) {
+			m_pendingHashes.put(deviceId, hash);
+		}
+		System.out.println("[BurnManager] " + (burned
+				? "SparkMax " + deviceId + " does not hold its burned configuration, restoring"
+				: "Configuration of SparkMax " + deviceId + " changed, restoring"));
+		device.restoreFactoryDefaults();
+		return true;
+	}
+
+	/**
+	 * Burns the controller if it was restored this boot and saves its configuration hash.
+	 *
+	 * @return Whether the controller was burned.
+	 */
+	public boolean burnIfChanged(int deviceId, FlashIO device) {
+		String hash;
+		synchronized (this) {
+			hash = m_pendingHashes.remove(deviceId);
+		}
+		if (hash == null) {
+			return false;
+		}
+
+		device.burnFlash();
+		synchronized (this) {
+			m_burnedHashes.setProperty(Integer.toString(deviceId), hash);
+			save();
+		}
+		return true;
+	}
+
+	/** Skips the burn of a controller whose configuration did not finish, so it restores next boot. */
+	public synchronized void cancelBurn(int deviceId) {
+		m_pendingHashes.remove(deviceId);
+	}
+
+	public synchronized boolean shouldBurn(int deviceId) {
+		return m_pendingHashes.containsKey(deviceId);
+	}
+
+	private void save() {
+		if (m_hashFile == null) {
+			return;
+		}
+		try (OutputStream output = Files.newOutputStream(m_hashFile)) {
+			m_burnedHashes.store(output, "SparkMax configuration hashes, delete to burn every controller");
+		} catch (IOException e) {
+			System.out.println("[BurnManager] Failed to write " + m_hashFile + ": " + e);
 		}
 	}
 
-	public static boolean shouldBurn() {
-		return shouldBurn;
+	/** @return A hex SHA-256 of every setting the factory writes, independent of label and CAN ID. */
+	public static String hash(SparkMaxConfiguration config) {
+		StringBuilder fields = new StringBuilder();
+		fields.append(kConfigVersion).append(',')
+				.append(config.kIdleMode.name()).append(',')
+				.append(config.kShouldInvert).append(',')
+				.append(config.kSmartCurrentLimit).append(',')
+				.append(config.kVoltageCompensation).append(',')
+				.append(config.kOpenLoopRampRate).append(',')
+				.append(config.kClosedLoopRampRate).append(',')
+				.append(config.kPositionConversionFactor).append(',')
+				.append(config.kVelocityConversionFactor);
+		if (config.pid != null) {
+			fields.append(",pid,").append(config.pid.kP).append(',')
+					.append(config.pid.kI).append(',')
+					.append(config.pid.kD).append(',')
+					.append(config.pid.kF).append(',')
+					.append(config.pid.kTolerance).append(',')
+					.append(config.pid.kMaxEffort).append(',')
+					// The factory always closes the loop on the built-in encoder
+					.append("primary encoder").append(',')
+					.append(config.kPositionWrappingMin).append(',')
+					.append(config.kPositionWrappingMax);
+		}
+		if (config.limits != null) {
+			// NaN limits are written as disabled, so the enables are hashed alongside the values
+			fields.append(",limits,").append(config.limits.kUpperLimit).append(',')
+					.append(!Double.isNaN(config.limits.kUpperLimit)).append(',')
+					.append(config.limits.kLowerLimit).append(',')
+					.append(!Double.isNaN(config.limits.kLowerLimit));
+		}
+		if (config.frames != null) {
+			FrameProfile frames = config.frames;
+			fields.append(",frames,").append(frames.kStatus0Ms).append(',')
+					.append(frames.kStatus1Ms).append(',')
+					.append(frames.kStatus2Ms).append(',')
+					.append(frames.kStatus3Ms).append(',')
+					.append(frames.kStatus4Ms).append(',')
+					.append(frames.kStatus5Ms).append(',')
+					.append(frames.kStatus6Ms);
+		}
+
+		try {
+			byte[] digest = MessageDigest.getInstance("SHA-256")
+					.digest(fields.toString().getBytes(StandardCharsets.UTF_8));
+			StringBuilder hex = new StringBuilder();
+			for (byte b : digest) {
+				hex.append(String.format("%02x", b));
+			}
+			return hex.toString();
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
 	}
 }
@@ -8,16 +8,48 @@ import com.revrobotics.CANSparkMax.SoftLimitDirection;
 import com.revrobotics.CANSparkMaxLowLevel.MotorType;
 import com.revrobotics.CANSparkMaxLowLevel.PeriodicFrame;
 
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.littletonrobotics.junction.Logger;
+
+import frc.lib.team5557.util.CANBusUtilization;
 import frc.lib.team5557.util.CANDeviceFinder;
 import frc.lib.team5557.util.CANDeviceId;
 import frc.lib.team5557.util.CANDeviceId.CANDeviceType;
+import frc.lib.team6328.Alert;
+import frc.lib.team6328.Alert.AlertType;
 
 public class SparkMaxFactory {
     public static final int configCANTimeout = 500;
     public static final int configCount = 4;
 
+    // Controllers configure in parallel on this many threads, each blocks on its own CAN replies
+    public static final int kConfigThreads = 4;
+    public static final double kConfigTimeoutSecs = 10.0;
+
+    public static final double kCANRescanPeriodSecs = 5.0;
+
     private static final CANDeviceFinder can = new CANDeviceFinder();
 
+    static {
+        can.startBackgroundRescan(kCANRescanPeriodSecs);
+    }
+
+    private static ExecutorService configExecutor = null;
+    private static long configDeadlineNanos = 0;
+    private static final Map<Integer, PendingDevice> pendingDevices = new HashMap<>();
+    private static final Map<String, Double> configTimesMs = new LinkedHashMap<>();
+    private static final Alert configTimeoutAlert = new Alert(
+            "SparkMax configuration timed out, check the startup log.", AlertType.ERROR);
+
     public static class SparkMaxConfiguration {
         public String label;
         public CANDeviceId canID;
@@ -32,6 +64,75 @@ public class SparkMaxFactory {
         public double kVoltageCompensation = Double.NaN;
         public double kOpenLoopRampRate = 0.0;
         public double kClosedLoopRampRate = 0.0;
+
+        // Built-in encoder units, 1.0 leaves positions in rotations and velocities in RPM
+        public double kPositionConversionFactor = 1.0;
+        public double kVelocityConversionFactor = 1.0;
+        // Position control wraps between these inputs, NaN leaves wrapping off
+        public double kPositionWrappingMin = Double.NaN;
+        public double kPositionWrappingMax = Double.NaN;
+
+        // Status frame periods, null leaves the controller at REV's defaults
+        public FrameProfile frames = null;
+    }
+
+    /**
+     * Status frame periods in milliseconds for one controller. Every frame a controller sends costs
+     * bus time, so frames whose data is never read should be disabled and frames feeding control or
+     * odometry can be sped up.
+     */
+    public static class FrameProfile {
+        public static final int kDisabled = 65535;
+        // Robot code sends a setpoint to each controller about once per loop
+        public static final double kControlFramesPerSecond = 50.0;
+
+        public int kStatus0Ms = 10; // Applied output, faults, follower
+        public int kStatus1Ms = 20; // Velocity, temperature, bus voltage, current
+        public int kStatus2Ms = 20; // Position
+        public int kStatus3Ms = 50; // Analog sensor
+        public int kStatus4Ms = 20; // Alternate encoder
+        public int kStatus5Ms = 200; // Duty cycle absolute encoder position
+        public int kStatus6Ms = 200; // Duty cycle absolute encoder velocity
+
+        /** A controller that is commanded directly and only uses its integrated encoder. */
+        public static FrameProfile leader() {
+            FrameProfile profile = new FrameProfile();
+            profile.kStatus0Ms = 20;
+            profile.kStatus3Ms = kDisabled;
+            profile.kStatus4Ms = kDisabled;
+            profile.kStatus5Ms = kDisabled;
+            profile.kStatus6Ms = kDisabled;
+            return profile;
+        }
+
+        /** Like {@link #leader()}, but nothing follows it and its applied output is only logged. */
+        public static FrameProfile nonLeader() {
+            FrameProfile profile = leader();
+            profile.kStatus0Ms = 100;
+            return profile;
+        }
+
+        public FrameProfile withPositionPeriod(int periodMs) {
+            kStatus2Ms = periodMs;
+            return this;
+        }
+
+        public FrameProfile withAbsoluteEncoderPeriod(int periodMs) {
+            kStatus5Ms = periodMs;
+            return this;
+        }
+
+        /** @return The frames per second the controller sends and receives with this profile. */
+        public double getFramesPerSecond() {
+            double framesPerSecond = kControlFramesPerSecond;
+            for (int periodMs : new int[] {kStatus0Ms, kStatus1Ms, kStatus2Ms, kStatus3Ms,
+                    kStatus4Ms, kStatus5Ms, kStatus6Ms}) {
+                if (periodMs < kDisabled) {
+                    framesPerSecond += 1000.0 / periodMs;
+                }
+            }
+            return framesPerSecond;
+        }
     }
 
     public static class PIDConfiguration {
@@ -50,22 +151,116 @@ public class SparkMaxFactory {
     }
     
     public static CANSparkMax createNEO(int id, SparkMaxConfiguration config) {
-        config.canID = new CANDeviceId(CANDeviceType.SPARK_MAX, id);
-        return createNEO(config);
+        // Configurations are shared between devices, so the ID is passed along instead of stored
+        return createNEO(new CANDeviceId(CANDeviceType.SPARK_MAX, id), config);
     }
 
     public static CANSparkMax createNEO(SparkMaxConfiguration config) {
-        can.isDevicePresent(config.canID.getDeviceType(), config.canID.getDeviceNumber(), config.label);
+        return createNEO(config.canID, config);
+    }
 
-        CANSparkMax sparkMax = new CANSparkMax(config.canID.getDeviceNumber(), MotorType.kBrushless);
+    /**
+     * Starts configuring a controller on the config pool. The later createNEO call for the same
+     * CAN ID then only waits for this device, so every controller configures at the same time.
+     */
+    public static void configureInBackground(int id, SparkMaxConfiguration config) {
+        configureInBackground(new CANDeviceId(CANDeviceType.SPARK_MAX, id), config);
+    }
+
+    public static void configureInBackground(SparkMaxConfiguration config) {
+        configureInBackground(config.canID, config);
+    }
+
+    private static synchronized void configureInBackground(CANDeviceId id,
+            SparkMaxConfiguration config) {
+        if (configExecutor == null) {
+            configExecutor = Executors.newFixedThreadPool(kConfigThreads, runnable -> {
+                Thread thread = new Thread(runnable, "SparkMaxConfig");
+                thread.setDaemon(true);
+                return thread;
+            });
+            configDeadlineNanos = System.nanoTime() + (long) (kConfigTimeoutSecs * 1.0e9);
+        }
+
+        PendingDevice pending = new PendingDevice();
+        pending.future = configExecutor.submit(() -> configure(id, config, pending));
+        pendingDevices.put(id.getDeviceNumber(), pending);
+    }
+
+    private static CANSparkMax createNEO(CANDeviceId id, SparkMaxConfiguration config) {
+        PendingDevice pending;
+        synchronized (SparkMaxFactory.class) {
+            pending = pendingDevices.remove(id.getDeviceNumber());
+        }
+        if (pending == null) {
+            return configure(id, config, null);
+        }
+
+        try {
+            return pending.future.get(Math.max(0, configDeadlineNanos - System.nanoTime()),
+                    TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            boolean started;
+            synchronized (pending) {
+                pending.aborted = true;
+                started = pending.started;
+            }
+
+            if (!started) {
+                // Still queued behind slower devices, it will never run now
+                pending.future.cancel(false);
+                System.out.println("[SparkMaxFactory] Config pool timed out before " + id
+                        + ", configuring it on the calling thread");
+                return configure(id, config, null);
+            }
+
+            try {
+                // Wait for the worker to finish its first full pass and stop, so nothing writes
+                // to the controller once it is returned
+                CANSparkMax sparkMax = pending.future.get();
+                BurnManager.getInstance().cancelBurn(id.getDeviceNumber());
+                recordConfigTime(config.label + " (" + id + ")", Double.NaN);
+                configTimeoutAlert.set(true);
+                System.out.println("[SparkMaxFactory] Timed out configuring " + id);
+                return sparkMax;
+            } catch (InterruptedException | ExecutionException inner) {
+                throw new IllegalStateException("Failed to configure " + id, inner);
+            }
+        } catch (InterruptedException | ExecutionException e) {
+            throw new IllegalStateException("Failed to configure " + id, e);
+        }
+    }
+
+    private static CANSparkMax configure(CANDeviceId id, SparkMaxConfiguration config,
+            PendingDevice pending) {
+        if (pending != null) {
+            synchronized (pending) {
+                if (pending.aborted) {
+                    // createNEO gave up on the pool and configures the device itself
+                    return null;
+                }
+                pending.started = true;
+            }
+        }
+
+        long startNanos = System.nanoTime();
+        can.isDevicePresent(id.getDeviceType(), id.getDeviceNumber(), config.label);
+
+        CANSparkMax sparkMax = new CANSparkMax(id.getDeviceNumber(), MotorType.kBrushless);
         SparkMaxPIDController pid = sparkMax.getPIDController();
         RelativeEncoder encoder = sparkMax.getEncoder();
 
-        BurnManager.restoreFactoryDefaults(sparkMax);
-        
+        // Before restoring, so the flash read back by the BurnManager waits for a reply
         sparkMax.setCANTimeout(configCANTimeout);
+        BurnManager.restoreFactoryDefaults(sparkMax, config);
 
         for(int i = 0; i < configCount; i++) {
+            // A timed out device still gets one full pass, so it is never handed out without its
+            // current limit, inversion and idle mode
+            if(i > 0 && pending != null && pending.aborted) {
+                break;
+            }
+
             if(!Double.isNaN(config.kSmartCurrentLimit)) {
                 sparkMax.setSmartCurrentLimit((int)config.kSmartCurrentLimit);
             }
@@ -80,6 +275,13 @@ public class SparkMaxFactory {
 
             encoder.setMeasurementPeriod(10);
             encoder.setAverageDepth(2);
+            // Restoring resets these, so only other values need writing
+            if(config.kPositionConversionFactor != 1.0) {
+                encoder.setPositionConversionFactor(config.kPositionConversionFactor);
+            }
+            if(config.kVelocityConversionFactor != 1.0) {
+                encoder.setVelocityConversionFactor(config.kVelocityConversionFactor);
+            }
 
             if(config.pid != null) {
                 pid.setP(config.pid.kP, 0);
@@ -90,39 +292,76 @@ public class SparkMaxFactory {
                 pid.setOutputRange(-config.pid.kMaxEffort, config.pid.kMaxEffort, 0);
                 pid.setIZone(config.pid.kTolerance * 2, 0);
                 pid.setIMaxAccum(5.0, 0);
+                pid.setFeedbackDevice(encoder);
+
+                if(!Double.isNaN(config.kPositionWrappingMin) && !Double.isNaN(config.kPositionWrappingMax)) {
+                    pid.setPositionPIDWrappingMinInput(config.kPositionWrappingMin);
+                    pid.setPositionPIDWrappingMaxInput(config.kPositionWrappingMax);
+                    pid.setPositionPIDWrappingEnabled(true);
+                }
             }
 
             if(config.limits != null) {
                 configSoftLimits(sparkMax, config.limits);
             }
+
+            if(config.frames != null) {
+                configFrames(sparkMax, config.frames);
+            }
         }
         sparkMax.setCANTimeout(0);
 
+        FrameProfile frames = config.frames != null ? config.frames : new FrameProfile();
+        CANBusUtilization.register(config.label + " (" + id + ")", frames.getFramesPerSecond());
+        if (pending == null || !pending.aborted) {
+            recordConfigTime(config.label + " (" + id + ")", (System.nanoTime() - startNanos) * 1.0e-6);
+        }
+
         return sparkMax;
     }
 
-    public static void configFramesLeaderOrFollower(CANSparkMax sparkMax) {
-        sparkMax.setPeriodicFramePeriod(PeriodicFrame.kStatus0, 20);
-        sparkMax.setPeriodicFramePeriod(PeriodicFrame.kStatus3, 65535);
-        sparkMax.setPeriodicFramePeriod(PeriodicFrame.kStatus4, 65535);
-        sparkMax.setPeriodicFramePeriod(PeriodicFrame.kStatus5, 65535);
-        sparkMax.setPeriodicFramePeriod(PeriodicFrame.kStatus6, 65535);
+    private static synchronized void recordConfigTime(String device, double milliseconds) {
+        configTimesMs.put(device, milliseconds);
     }
 
-    public static void configNonLeader(CANSparkMax sparkMax) {
-        sparkMax.setPeriodicFramePeriod(PeriodicFrame.kStatus0, 100);
-        sparkMax.setPeriodicFramePeriod(PeriodicFrame.kStatus3, 65535);
-        sparkMax.setPeriodicFramePeriod(PeriodicFrame.kStatus4, 65535);
-        sparkMax.setPeriodicFramePeriod(PeriodicFrame.kStatus5, 65535);
-        sparkMax.setPeriodicFramePeriod(PeriodicFrame.kStatus6, 65535);
-      }
+    /** Prints how long each controller took to configure. Call once every device is created. */
+    public static synchronized void printConfigReport() {
+        System.out.println("[SparkMaxFactory] Configuration time per device:");
+        double slowestMs = 0.0;
+        for (Map.Entry<String, Double> entry : configTimesMs.entrySet()) {
+            if (Double.isNaN(entry.getValue())) {
+                System.out.printf("[SparkMaxFactory]   %-32s timed out%n", entry.getKey());
+            } else {
+                System.out.printf("[SparkMaxFactory]   %-32s %6.0f ms%n", entry.getKey(),
+                        entry.getValue());
+                slowestMs = Math.max(slowestMs, entry.getValue());
+            }
+        }
+        // Devices configure in parallel, so startup waits on roughly the slowest one
+        System.out.printf("[SparkMaxFactory]   Slowest device %.0f ms%n", slowestMs);
+        Logger.getInstance().recordOutput("CAN/SlowestSparkMaxConfigMs", slowestMs);
+
+        if (configExecutor != null) {
+            configExecutor.shutdown();
+            configExecutor = null;
+        }
+    }
 
-    public static void configFramesPositionBoost(CANSparkMax sparkMax) {
-        sparkMax.setPeriodicFramePeriod(PeriodicFrame.kStatus2, 10);
+    private static class PendingDevice {
+        Future<CANSparkMax> future;
+        // Set under the PendingDevice lock, so a worker either starts before the abort or never
+        boolean started = false;
+        volatile boolean aborted = false;
     }
 
-    public static void configFramesAbsoluteEncoderBoost(CANSparkMax sparkMax) {
-        sparkMax.setPeriodicFramePeriod(PeriodicFrame.kStatus5, 10);
+    public static void configFrames(CANSparkMax sparkMax, FrameProfile frames) {
+        sparkMax.setPeriodicFramePeriod(PeriodicFrame.kStatus0, frames.kStatus0Ms);
+        sparkMax.setPeriodicFramePeriod(PeriodicFrame.kStatus1, frames.kStatus1Ms);
+        sparkMax.setPeriodicFramePeriod(PeriodicFrame.kStatus2, frames.kStatus2Ms);
+        sparkMax.setPeriodicFramePeriod(PeriodicFrame.kStatus3, frames.kStatus3Ms);
+        sparkMax.setPeriodicFramePeriod(PeriodicFrame.kStatus4, frames.kStatus4Ms);
+        sparkMax.setPeriodicFramePeriod(PeriodicFrame.kStatus5, frames.kStatus5Ms);
+        sparkMax.setPeriodicFramePeriod(PeriodicFrame.kStatus6, frames.kStatus6Ms);
     }
 
     public static void configSoftLimits(CANSparkMax sparkMax, SoftLimitsConfiguration config) {
@@ -0,0 +1,133 @@
+package frc.lib.team5557.factory;
+
+import java.util.ArrayDeque;
+
+import org.littletonrobotics.junction.Logger;
+
+import com.revrobotics.CANSparkMax;
+import com.revrobotics.REVLibError;
+import com.revrobotics.SparkMaxPIDController;
+
+import frc.lib.team5557.factory.SparkMaxFactory.PIDConfiguration;
+
+/**
+ * The closed loop gains of one SparkMax slot, tracking what was last sent to the controller. New
+ * gains only queue the parameters that differ, and {@link #flushAll()} sends the queue across every
+ * controller a few parameters per loop, at most one per controller. An edit that touches every
+ * module then spreads over a few loops instead of landing on the bus at once.
+ */
+public class SparkMaxGains {
+    // Parameter writes on the whole bus per loop
+    public static final int kMaxWritesPerLoop = 4;
+
+    private static final int kP = 0;
+    private static final int kI = 1;
+    private static final int kD = 2;
+    private static final int kF = 3;
+
+    private static final ArrayDeque<SparkMaxGains> queuedGains = new ArrayDeque<>();
+    private static long requestedWrites = 0;
+    private static long sentWrites = 0;
+
+    private final SparkMaxPIDController m_pid;
+    private final int m_slot;
+    private final double[] m_sent = new double[4];
+    private final double[] m_target = new double[4];
+    private int m_dirtyMask = 0;
+    private boolean m_queued = false;
+
+    /**
+     * @param initial The gains the factory already wrote to this slot, null if none were.
+     */
+    public SparkMaxGains(CANSparkMax sparkMax, int slot, PIDConfiguration initial) {
+        m_pid = sparkMax.getPIDController();
+        m_slot = slot;
+        if (initial != null) {
+            m_sent[kP] = initial.kP;
+            m_sent[kI] = initial.kI;
+            m_sent[kD] = initial.kD;
+            m_sent[kF] = initial.kF;
+        }
+        System.arraycopy(m_sent, 0, m_target, 0, m_sent.length);
+    }
+
+    public void set(double p, double i, double d) {
+        setParameter(kP, p);
+        setParameter(kI, i);
+        setParameter(kD, d);
+    }
+
+    public void set(double p, double i, double d, double f) {
+        set(p, i, d);
+        setParameter(kF, f);
+    }
+
+    private void setParameter(int parameter, double value) {
+        requestedWrites++;
+        m_target[parameter] = value;
+        if (value == m_sent[parameter]) {
+            m_dirtyMask &= ~(1 << parameter);
+        } else {
+            m_dirtyMask |= 1 << parameter;
+        }
+
+        if (m_dirtyMask != 0 && !m_queued) {
+            m_queued = true;
+            queuedGains.add(this);
+        }
+    }
+
+    /** Sends the lowest changed parameter. A failed write stays queued for the next loop. */
+    private void sendNext() {
+        int parameter = Integer.numberOfTrailingZeros(m_dirtyMask);
+        double value = m_target[parameter];
+        REVLibError error;
+        switch (parameter) {
+            case kP:
+                error = m_pid.setP(value, m_slot);
+                break;
+            case kI:
+                error = m_pid.setI(value, m_slot);
+                break;
+            case kD:
+                error = m_pid.setD(value, m_slot);
+                break;
+            default:
+                error = m_pid.setFF(value, m_slot);
+                break;
+        }
+
+        if (error == REVLibError.kOk) {
+            sentWrites++;
+            m_sent[parameter] = value;
+            m_dirtyMask &= ~(1 << parameter);
+        }
+    }
+
+    /** Sends queued parameters within the per loop budget. Call once per loop. */
+    public static void flushAll() {
+        int budget = Math.min(kMaxWritesPerLoop, queuedGains.size());
+        for (int n = 0; n < budget; n++) {
+            SparkMaxGains gains = queuedGains.poll();
+            if (gains.m_dirtyMask != 0) {
+                gains.sendNext();
+            }
+
+            if (gains.m_dirtyMask != 0) {
+                queuedGains.add(gains);
+            } else {
+                gains.m_queued = false;
+            }
+        }
+
+        if (requestedWrites > 0) {
+            Logger.getInstance().recordOutput("CAN/GainWritesSent", sentWrites);
+            Logger.getInstance().recordOutput("CAN/GainWritesSaved", getWritesSaved());
+        }
+    }
+
+    /** @return Parameter writes skipped because the value was unchanged or replaced while queued. */
+    public static long getWritesSaved() {
+        return requestedWrites - sentWrites;
+    }
+}
@@ -0,0 +1,50 @@
+package frc.lib.team5557.util;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.littletonrobotics.junction.Logger;
+
+/**
+ * Estimates the load on the CAN bus from the status frame rates every device was configured with.
+ * Devices register the frames per second they will send as they are created, and the report sums
+ * them into an estimated bus utilization.
+ */
+public class CANBusUtilization {
+    public static final double kBitsPerSecond = 1.0e6;
+    // Extended 29 bit ID frame with 8 data bytes plus typical bit stuffing
+    public static final double kBitsPerFrame = 135.0;
+
+    private static final Map<String, Double> framesPerSecondByDevice = new LinkedHashMap<>();
+
+    /** Records the frames per second a device adds to the bus, replacing any earlier entry. */
+    public static synchronized void register(String device, double framesPerSecond) {
+        framesPerSecondByDevice.put(device, framesPerSecond);
+    }
+
+    public static synchronized double getTotalFramesPerSecond() {
+        double total = 0.0;
+        for (double framesPerSecond : framesPerSecondByDevice.values()) {
+            total += framesPerSecond;
+        }
+        return total;
+    }
+
+    /** @return The estimated fraction of the bus bandwidth in use, from 0 to 1. */
+    public static double getEstimatedUtilization() {
+        return getTotalFramesPerSecond() * kBitsPerFrame / kBitsPerSecond;
+    }
+
+    /** Prints the per device frame rates and logs the totals. Call once every device is created. */
+    public static synchronized void report() {
+        System.out.println("[CAN] Estimated status frame load:");
+        for (Map.Entry<String, Double> entry : framesPerSecondByDevice.entrySet()) {
+            System.out.printf("[CAN]   %-32s %7.1f frames/s%n", entry.getKey(), entry.getValue());
+        }
+        System.out.printf("[CAN]   Total %.1f frames/s, %.1f%% of the bus%n",
+                getTotalFramesPerSecond(), getEstimatedUtilization() * 100.0);
+
+        Logger.getInstance().recordOutput("CAN/EstimatedFramesPerSecond", getTotalFramesPerSecond());
+        Logger.getInstance().recordOutput("CAN/EstimatedUtilization", getEstimatedUtilization());
+    }
+}
@@ -1,6 +1,8 @@
 package frc.lib.team5557.util;
 
 import edu.wpi.first.hal.can.CANJNI;
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.Timer;
 import frc.lib.team5557.util.CANDeviceId.CANDeviceType;
 import frc.lib.team6328.Alert;
 import frc.lib.team6328.Alert.AlertType;
@@ -8,15 +10,31 @@ import frc.lib.team6328.Alert.AlertType;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
 import java.util.*;
-
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Finds the devices on the CAN bus by watching for their status frames. The full scan runs once and
+ * its result is cached as a bitset of device numbers per device type, so presence checks are a
+ * single lookup. Devices that have been looked up become expected, and an optional background
+ * thread re-probes only those while the robot is disabled and keeps their alerts up to date.
+ */
 public class CANDeviceFinder {
+  private static final int kMaxDeviceNumbers = 64;
+
   Set<CANDeviceId> deviceSet = new TreeSet<>();
 
-  /*
-   * this is a map, keyed by CANDeviceType, whose values are sets contained
-   * the device numbers for all the present devices of that type.
-   */
-  Map<CANDeviceType, Set<Integer>> byDeviceType = new TreeMap<>();
+  // Bit n of each entry is device number n of the device type with that ordinal
+  private final AtomicLongArray presentBits = new AtomicLongArray(CANDeviceType.values().length);
+  private final AtomicLongArray expectedBits = new AtomicLongArray(CANDeviceType.values().length);
+  // CAN ID of device number 0 for each type the full scan probes, device numbers are the low bits
+  private final Map<CANDeviceType, Integer> probeBaseIds = new EnumMap<>(CANDeviceType.class);
+
+  // One alert per device, created on first lookup and reused by the rescans
+  private final Alert[] missingAlerts =
+      new Alert[CANDeviceType.values().length * kMaxDeviceNumbers];
+
+  private volatile double lastScanTimestamp = Double.NaN;
+  private Thread rescanThread = null;
 
   public CANDeviceFinder() {
     super();
@@ -28,27 +46,58 @@ public class CANDeviceFinder {
   }
 
   public boolean isDevicePresent(CANDeviceType deviceType, int id, String whatItIs) {
-    boolean rv = false;
-    Set<Integer> deviceTypeSet = byDeviceType.get(deviceType);
-    if (deviceTypeSet != null) {
-      rv = deviceTypeSet.contains(id);
+    long bit = 1L << id;
+    expectedBits.getAndUpdate(deviceType.ordinal(), bits -> bits | bit);
+    boolean rv = (presentBits.get(deviceType.ordinal()) & bit) != 0;
+
+    Alert alert = getMissingAlert(deviceType, id, whatItIs);
+    alert.set(!rv);
+    return rv;
+  }
+
+  private synchronized Alert getMissingAlert(CANDeviceType deviceType, int id, String whatItIs) {
+    int index = deviceType.ordinal() * kMaxDeviceNumbers + id;
+    if (missingAlerts[index] == null) {
+      String name = whatItIs == null ? "" : " " + whatItIs;
+      missingAlerts[index] =
+          new Alert(
+              " " + deviceType + "(" + id + ")" + name + " is missing From the CAN bus",
+              AlertType.WARNING);
     }
-    if (!rv) {
-      if (whatItIs == null) {
-        Alert motor =
-            new Alert(
-                " " + deviceType + "(" + id + ")" + " is missing From the CAN bus",
-                AlertType.WARNING);
-        motor.set(true);
-      } else {
-        Alert motor =
-            new Alert(
-                " " + deviceType + "(" + id + ")" + whatItIs + " is missing From the CAN bus",
-                AlertType.WARNING);
-        motor.set(true);
-      }
+    return missingAlerts[index];
+  }
+
+  /** @return FPGA timestamp of the last full scan or rescan, in seconds. */
+  public double getLastScanTimestamp() {
+    return lastScanTimestamp;
+  }
+
+  public double getScanAgeSeconds() {
+    return Timer.getFPGATimestamp() - lastScanTimestamp;
+  }
+
+  /**
+   * Starts a daemon thread that re-probes the expected devices every period while the robot is
+   * disabled. Probing steals the latest frame from the robot API, so it never runs while enabled.
+   */
+  public synchronized void startBackgroundRescan(double periodSecs) {
+    if (rescanThread != null) {
+      return;
     }
-    return rv;
+    rescanThread =
+        new Thread(
+            () -> {
+              while (!Thread.currentThread().isInterrupted()) {
+                Timer.delay(periodSecs);
+                if (DriverStation.isDisabled()) {
+                  rescanExpected();
+                }
+              }
+            },
+            "CANRescan");
+    rescanThread.setDaemon(true);
+    rescanThread.setPriority(Thread.MIN_PRIORITY);
+    rescanThread.start();
   }
 
   /**
@@ -120,6 +169,7 @@ public class CANDeviceFinder {
 
       this.deviceSet = deviceSet;
       this.canDeviceType = canDeviceType;
+      probeBaseIds.put(canDeviceType, canBusId(devType, mfg, apiId, 0));
 
       ids = new int[maxDevices];
       for (int i = 0; i < maxDevices; i++) {
@@ -161,11 +211,40 @@ public class CANDeviceFinder {
     }
   }
 
+  class ExpectedFinder extends CanFinder {
+    CANDeviceType canDeviceType;
+    long expected;
+
+    ExpectedFinder(int baseId, long expected, CANDeviceType canDeviceType) {
+      super();
+      this.canDeviceType = canDeviceType;
+      this.expected = expected;
+
+      ids = new int[Long.bitCount(expected)];
+      int index = 0;
+      for (int deviceId = 0; deviceId < kMaxDeviceNumbers; deviceId++) {
+        if ((expected & (1L << deviceId)) != 0) {
+          ids[index++] = baseId | deviceId;
+        }
+      }
+    }
+
+    @Override
+    void report() {
+      long found = 0;
+      for (int id : idsPresent) {
+        found |= 1L << (id & 0x3f);
+      }
+      long present = found;
+      presentBits.getAndUpdate(canDeviceType.ordinal(), bits -> (bits & ~expected) | present);
+    }
+  }
+
   /**
    * polls for received framing to determine if a device is deviceSet. This is meant to be used once
    * initially (and not periodically) since this steals cached messages from the robot API.
    */
-  public void find() {
+  public synchronized void find() {
     List<CanFinder> finders = new ArrayList<>();
 
     /*
@@ -222,7 +301,7 @@ public class CANDeviceFinder {
     findDetails(finders);
   }
 
-  public void research() {
+  public synchronized void research() {
     List<CanFinder> finders = new ArrayList<>();
 
     finders.add(new APIFinder(9, 4, 0, CANDeviceType.PCM)); // PCM
@@ -233,10 +312,53 @@ public class CANDeviceFinder {
     findDetails(finders);
   }
 
+  /** Probes only the devices that have been looked up, leaving the rest of the cache alone. */
+  public synchronized void rescanExpected() {
+    List<CanFinder> finders = new ArrayList<>();
+    for (CANDeviceType canDeviceType : CANDeviceType.values()) {
+      long expected = expectedBits.get(canDeviceType.ordinal());
+      Integer baseId = probeBaseIds.get(canDeviceType);
+      if (expected != 0 && baseId != null) {
+        finders.add(new ExpectedFinder(baseId, expected, canDeviceType));
+      }
+    }
+    if (finders.isEmpty()) {
+      return;
+    }
+
+    probe(finders);
+
+    // Refresh the alerts of every expected device that has been looked up
+    for (CANDeviceType canDeviceType : CANDeviceType.values()) {
+      long expected = expectedBits.get(canDeviceType.ordinal());
+      long present = presentBits.get(canDeviceType.ordinal());
+      for (int deviceId = 0; deviceId < kMaxDeviceNumbers; deviceId++) {
+        Alert alert = missingAlerts[canDeviceType.ordinal() * kMaxDeviceNumbers + deviceId];
+        if (alert != null && (expected & (1L << deviceId)) != 0) {
+          alert.set((present & (1L << deviceId)) == 0);
+        }
+      }
+    }
+  }
+
   void findDetails(List<CanFinder> finders) {
     deviceSet.clear();
-    byDeviceType.clear();
 
+    probe(finders);
+
+    /*
+    fill in the present bits for each device type.
+    */
+    long[] bits = new long[CANDeviceType.values().length];
+    for (CANDeviceId canDeviceId : deviceSet) {
+      bits[canDeviceId.getDeviceType().ordinal()] |= 1L << canDeviceId.getDeviceNumber();
+    }
+    for (int i = 0; i < bits.length; i++) {
+      presentBits.set(i, bits[i]);
+    }
+  }
+
+  private void probe(List<CanFinder> finders) {
     for (CanFinder finder : finders) {
       finder.pass1();
     }
@@ -257,16 +379,7 @@ public class CANDeviceFinder {
       finder.report();
     }
 
-    /*
-    fill in the byDeviceType map.
-    */
-    for (CANDeviceId canDeviceId : deviceSet) {
-      CANDeviceType canDeviceType = canDeviceId.getDeviceType();
-
-      Set<Integer> deviceNumberSet =
-          byDeviceType.computeIfAbsent(canDeviceType, k -> new TreeSet<>());
-      deviceNumberSet.add(canDeviceId.getDeviceNumber());
-    }
+    lastScanTimestamp = Timer.getFPGATimestamp();
   }
 
   /* help to calculate the CAN bus ID for a devType|mfg|api|dev.
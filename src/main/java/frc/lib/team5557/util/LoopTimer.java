@@ -0,0 +1,117 @@
+package frc.lib.team5557.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.littletonrobotics.junction.Logger;
+
+/**
+ * Times sections of the main loop and logs their rolling p50, p99 and max under "LoopTiming/".
+ * Durations are kept in primitive ring buffers, so timing a section costs two nanoTime calls.
+ */
+public class LoopTimer {
+    public static final String kLogPrefix = "LoopTiming/";
+    public static final int kWindowSize = 100; // 2 seconds of loops
+
+    private static final List<Section> sections = new ArrayList<>();
+    private static final Map<String, Section> sectionsByName = new HashMap<>();
+    private static final long[] sortScratch = new long[kWindowSize];
+
+    private static long lastMarkNanos = System.nanoTime();
+
+    /** @return The section with this name, created on first use. */
+    public static Section getSection(String name) {
+        Section section = sectionsByName.get(name);
+        if (section == null) {
+            section = new Section(name);
+            sectionsByName.put(name, section);
+            sections.add(section);
+        }
+        return section;
+    }
+
+    /**
+     * Records the time since the last section started or stopped against a section. Used where only
+     * a callback after the work is available, such as command execute.
+     */
+    public static void recordSinceMark(Section section) {
+        long now = System.nanoTime();
+        section.record(now - lastMarkNanos);
+        lastMarkNanos = now;
+    }
+
+    /** Logs the statistics of every section. Call once per loop. */
+    public static void logAll() {
+        for (int i = 0; i < sections.size(); i++) {
+            sections.get(i).log();
+        }
+    }
+
+    public static class Section {
+        private final long[] m_samples = new long[kWindowSize];
+        private int m_head = 0;
+        private int m_count = 0;
+        private long m_startNanos = 0;
+        private boolean m_updated = false;
+
+        private final String m_p50Key;
+        private final String m_p99Key;
+        private final String m_maxKey;
+
+        private Section(String name) {
+            m_p50Key = kLogPrefix + name + "/P50Ms";
+            m_p99Key = kLogPrefix + name + "/P99Ms";
+            m_maxKey = kLogPrefix + name + "/MaxMs";
+        }
+
+        public void start() {
+            m_startNanos = System.nanoTime();
+            lastMarkNanos = m_startNanos;
+        }
+
+        /** @return The time since this section last started, so later work can fit the loop. */
+        public long getElapsedNanos() {
+            return System.nanoTime() - m_startNanos;
+        }
+
+        public void stop() {
+            long now = System.nanoTime();
+            record(now - m_startNanos);
+            lastMarkNanos = now;
+        }
+
+        public void record(long durationNanos) {
+            m_samples[m_head] = durationNanos;
+            m_head = (m_head + 1) % kWindowSize;
+            if (m_count < kWindowSize) {
+                m_count++;
+            }
+            m_updated = true;
+        }
+
+        private void log() {
+            // Sections that did not run this loop (e.g. finished commands) keep their last values
+            if (!m_updated) {
+                return;
+            }
+            m_updated = false;
+
+            System.arraycopy(m_samples, 0, sortScratch, 0, m_count);
+            Arrays.sort(sortScratch, 0, m_count);
+            Logger.getInstance().recordOutput(m_p50Key, toMs(sortScratch[percentileIndex(0.5)]));
+            Logger.getInstance().recordOutput(m_p99Key, toMs(sortScratch[percentileIndex(0.99)]));
+            Logger.getInstance().recordOutput(m_maxKey, toMs(sortScratch[m_count - 1]));
+        }
+
+        private int percentileIndex(double percentile) {
+            return Math.min(m_count - 1, (int) Math.ceil(percentile * m_count) - 1);
+        }
+
+        private static double toMs(long nanos) {
+            return nanos * 1.0e-6;
+        }
+    }
+}
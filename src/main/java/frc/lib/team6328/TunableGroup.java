@@ -0,0 +1,83 @@
+package frc.lib.team6328;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import frc.robot.Constants;
+
+/**
+ * Related tunable numbers that are applied together, like the gains of one controller. The numbers
+ * are polled once per loop by {@link #periodic()}, and each group runs its change listeners once
+ * when any of its numbers was edited. Numbers are shared by dashboard key, so groups built per
+ * module or per instance read one dashboard entry.
+ *
+ * <p>Outside tuning mode nothing is registered and {@link #periodic()} returns immediately.
+ */
+public class TunableGroup {
+  private static final List<TunableGroup> groups = new ArrayList<>();
+  private static final Map<String, TunableNumber> numbersByKey = new HashMap<>();
+
+  private final List<TunableNumber> numbers = new ArrayList<>();
+  private final List<Runnable> listeners = new ArrayList<>();
+  private int[] seenVersions = new int[0];
+
+  public TunableGroup() {
+    if (Constants.kTuningMode) {
+      groups.add(this);
+    }
+  }
+
+  /**
+   * Adds a number to the group, reusing the number already registered under the same key.
+   *
+   * @param dashboardKey Key on dashboard
+   * @param defaultValue Default value
+   */
+  public TunableNumber add(String dashboardKey, double defaultValue) {
+    TunableNumber number =
+        numbersByKey.computeIfAbsent(dashboardKey, key -> new TunableNumber(key, defaultValue));
+    numbers.add(number);
+    seenVersions = new int[numbers.size()];
+    for (int i = 0; i < seenVersions.length; i++) {
+      seenVersions[i] = numbers.get(i).getVersion();
+    }
+    return number;
+  }
+
+  /** Runs the listener on the main loop whenever a number in this group is edited. */
+  public TunableGroup onChange(Runnable listener) {
+    listeners.add(listener);
+    return this;
+  }
+
+  /** Polls the dashboard and notifies the groups with edited numbers. Call once per loop. */
+  public static void periodic() {
+    if (!Constants.kTuningMode) {
+      return;
+    }
+
+    TunableNumber.pollAll();
+    for (int i = 0; i < groups.size(); i++) {
+      groups.get(i).update();
+    }
+  }
+
+  private void update() {
+    boolean changed = false;
+    for (int i = 0; i < seenVersions.length; i++) {
+      int version = numbers.get(i).getVersion();
+      if (version != seenVersions[i]) {
+        seenVersions[i] = version;
+        changed = true;
+      }
+    }
+
+    if (changed) {
+      for (int i = 0; i < listeners.size(); i++) {
+        listeners.get(i).run();
+      }
+    }
+  }
+}
@@ -1,22 +1,30 @@
 package frc.lib.team6328;
 
 import org.littletonrobotics.junction.networktables.LoggedDashboardNumber;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.ArrayList;
+import java.util.List;
 import frc.robot.Constants;
 
 /**
  * Class for a tunable number. Gets value from dashboard in tuning mode, returns default if not or
- * value not in dashboard.
+ * value not in dashboard. The dashboard is read once per loop by {@link TunableGroup#periodic()}
+ * and get() returns the cached value, so outside tuning mode it is a plain field read.
+ *
+ * <p>
+ * That poll covers every tunable number, including ones created outside a group (such as Roller's).
+ * Without it every get() goes stale, returning the last polled value or the default if none was.
  */
 public class TunableNumber {
     private static final String tableKey = "TunableNumbers";
+    // Every number with a dashboard entry, only filled in tuning mode
+    private static final List<TunableNumber> tuningNumbers = new ArrayList<>();
   
     private final String key;
     private boolean hasDefault = false;
     private double defaultValue;
+    private double value = 0.0;
+    private int version = 0;
     private LoggedDashboardNumber dashboardNumber;
-    private Map<Integer, Double> lastHasChangedValues = new HashMap<>();
   
     /**
      * Create a new LoggedTunableNumber
@@ -47,8 +55,10 @@ public class TunableNumber {
       if (!hasDefault) {
         hasDefault = true;
         this.defaultValue = defaultValue;
+        this.value = defaultValue;
         if (Constants.kTuningMode) {
           dashboardNumber = new LoggedDashboardNumber(key, defaultValue);
+          tuningNumbers.add(this);
         }
       }
     }
@@ -59,29 +69,23 @@ public class TunableNumber {
      * @return The current value
      */
     public double get() {
-      if (!hasDefault) {
-        return 0.0;
-      } else {
-        return Constants.kTuningMode ? dashboardNumber.get() : defaultValue;
-      }
+      return value;
     }
-  
-    /**
-     * Checks whether the number has changed since our last check
-     *
-     * @param id Unique identifier for the caller to avoid conflicts when shared between multiple
-     *     objects. Recommended approach is to pass the result of "hashCode()"
-     * @return True if the number has changed since the last time this method was called, false
-     *     otherwise.
-     */
-    public boolean hasChanged(int id) {
-      double currentValue = get();
-      Double lastValue = lastHasChangedValues.get(id);
-      if (lastValue == null || currentValue != lastValue) {
-        lastHasChangedValues.put(id, currentValue);
-        return true;
+
+    /** @return A count that goes up every time the dashboard value changes. */
+    int getVersion() {
+      return version;
+    }
+
+    /** Reads every dashboard entry once, bumping the version of the numbers that changed. */
+    static void pollAll() {
+      for (int i = 0; i < tuningNumbers.size(); i++) {
+        TunableNumber number = tuningNumbers.get(i);
+        double dashboardValue = number.dashboardNumber.get();
+        if (Double.compare(dashboardValue, number.value) != 0) {
+          number.value = dashboardValue;
+          number.version++;
+        }
       }
-  
-      return false;
     }
   }
\ No newline at end of file
@@ -7,6 +7,7 @@
 
 package frc.lib.team6328;
 
+import frc.lib.team5557.util.LoopTimer;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -14,6 +15,9 @@ import java.util.List;
 public abstract class VirtualSubsystem {
   private static List<VirtualSubsystem> subsystems = new ArrayList<>();
 
+  private final LoopTimer.Section loopTiming =
+      LoopTimer.getSection("Subsystems/" + getClass().getSimpleName());
+
   public VirtualSubsystem() {
     subsystems.add(this);
   }
@@ -21,7 +25,9 @@ public abstract class VirtualSubsystem {
   /** Calls {@link #periodic()} on all virtual subsystems. */
   public static void periodicAll() {
     for (var subsystem : subsystems) {
+      subsystem.loopTiming.start();
       subsystem.periodic();
+      subsystem.loopTiming.stop();
     }
   }
 
@@ -3,7 +3,11 @@ package frc.robot;
 public class Constants {
 
     public static boolean kIsReal = Robot.isReal();
-    public static boolean kTuningMode = true;
+    // Replay a log instead of simulating, see the replayLog property in build.gradle
+    public static boolean kIsReplay = !kIsReal && System.getenv("AKIT_LOG_PATH") != null;
+    // Auto routines to run headless in stepped time, see the simAutos property in build.gradle
+    public static String kSimAutos = kIsReal || kIsReplay ? null : System.getenv("SIM_AUTOS");
+    public static final boolean kTuningMode = true;
 
     public class RobotMap {
         public static final int kFLDriveMotor = 21;
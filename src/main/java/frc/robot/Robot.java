@@ -4,13 +4,16 @@
 
 package frc.robot;
 
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.function.BiConsumer;
+import org.littletonrobotics.junction.LogFileUtil;
 import org.littletonrobotics.junction.LoggedRobot;
 import org.littletonrobotics.junction.Logger;
 import org.littletonrobotics.junction.inputs.LoggedPowerDistribution;
 import org.littletonrobotics.junction.networktables.NT4Publisher;
+import org.littletonrobotics.junction.wpilog.WPILOGReader;
 import org.littletonrobotics.junction.wpilog.WPILOGWriter;
 import edu.wpi.first.wpilibj.DriverStation;
 import edu.wpi.first.wpilibj.RobotController;
@@ -19,19 +22,27 @@ import edu.wpi.first.wpilibj.Timer;
 import edu.wpi.first.wpilibj.PowerDistribution.ModuleType;
 import edu.wpi.first.wpilibj2.command.Command;
 import edu.wpi.first.wpilibj2.command.CommandScheduler;
+import frc.lib.team5557.factory.SparkMaxGains;
+import frc.lib.team5557.util.LoopTimer;
 import frc.lib.team6328.Alert;
 import frc.lib.team6328.VirtualSubsystem;
 import frc.lib.team6328.Alert.AlertType;
+import frc.lib.team6328.TunableGroup;
+import frc.robot.auto.HeadlessAutoRunner;
 import frc.robot.subsystems.leds.LEDs;
 
 public class Robot extends LoggedRobot {
     private Command m_autonomousCommand;
     private Command m_subsystemCheckCommand;
     private RobotContainer m_robotContainer;
+    private HeadlessAutoRunner m_headlessAutoRunner;
 
     private final Timer canErrorTimer = new Timer();
     private final Timer disabledTimer = new Timer();
 
+    private final LoopTimer.Section robotPeriodicTiming = LoopTimer.getSection("RobotPeriodic");
+    private final LoopTimer.Section schedulerTiming = LoopTimer.getSection("CommandScheduler");
+
     private final Alert logReceiverQueueAlert =
             new Alert("Logging queue exceeded capacity, data will NOT be logged.", AlertType.ERROR);
     private final Alert canErrorAlert =
@@ -50,6 +61,13 @@ public class Robot extends LoggedRobot {
             logger.addDataReceiver(new WPILOGWriter(folder));
             logger.addDataReceiver(new NT4Publisher());
             LoggedPowerDistribution.getInstance(0, ModuleType.kRev);
+        } else if (Constants.kIsReplay) {
+            // Run as fast as possible, the inputs all come from the log
+            setUseTiming(false);
+            String logPath = LogFileUtil.findReplayLog();
+            System.out.println("[Init] Replaying " + logPath);
+            logger.setReplaySource(new WPILOGReader(logPath));
+            logger.addDataReceiver(new WPILOGWriter(LogFileUtil.addPathSuffix(logPath, "_replay")));
         } else {
             logger.addDataReceiver(new NT4Publisher());
         }
@@ -77,6 +95,14 @@ public class Robot extends LoggedRobot {
             logCommandFunction.accept(command, false);
         });
 
+        // Time command execute. The scheduler only calls back after execute, so each sample also
+        // covers the scheduler work since the previous subsystem or command.
+        Map<String, LoopTimer.Section> commandTimings = new HashMap<>();
+        CommandScheduler.getInstance().onCommandExecute((Command command) -> {
+            LoopTimer.recordSinceMark(commandTimings.computeIfAbsent(command.getName(),
+                    name -> LoopTimer.getSection("Commands/" + name)));
+        });
+
 
         // Start timers
         canErrorTimer.reset();
@@ -87,12 +113,24 @@ public class Robot extends LoggedRobot {
         // Instantiate RobotContainer
         System.out.println("[Init] Instantiating RobotContainer");
         m_robotContainer = new RobotContainer();
+
+        if (Constants.kSimAutos != null) {
+            setUseTiming(false);
+            m_headlessAutoRunner = new HeadlessAutoRunner(Constants.kSimAutos.equals("all")
+                    ? m_robotContainer.getAutonomousRoutineNames()
+                    : Arrays.asList(Constants.kSimAutos.split(",")));
+        }
     }
 
     @Override
     public void robotPeriodic() {
+        robotPeriodicTiming.start();
         Threads.setCurrentThreadPriority(true, 99);
+        TunableGroup.periodic();
+        SparkMaxGains.flushAll();
+        schedulerTiming.start();
         CommandScheduler.getInstance().run();
+        schedulerTiming.stop();
         VirtualSubsystem.periodicAll();
 
         // Check logging fault
@@ -111,9 +149,21 @@ public class Robot extends LoggedRobot {
         }
         if (RobotController.getBatteryVoltage() < 10.0
                 && disabledTimer.hasElapsed(2.0)) {
-            LEDs.getInstance().lowBatteryAlert = true;
+            LEDs.getInstance().setLowBatteryAlert(true);
             lowBatteryAlert.set(true);
         }
+
+        robotPeriodicTiming.stop();
+        LoopTimer.logAll();
+
+        if (m_headlessAutoRunner != null) {
+            m_headlessAutoRunner.periodic();
+        }
+
+        // Last, so warmup only gets what is left of the loop
+        if (DriverStation.isDisabled()) {
+            m_robotContainer.prewarmAutonomous(robotPeriodicTiming.getElapsedNanos() * 1.0e-9);
+        }
     }
 
     @Override
@@ -127,7 +177,13 @@ public class Robot extends LoggedRobot {
 
     @Override
     public void autonomousInit() {
-        m_autonomousCommand = m_robotContainer.getAutonomousCommand();
+        if (m_headlessAutoRunner != null) {
+            m_autonomousCommand = m_robotContainer
+                    .getAutonomousCommand(m_headlessAutoRunner.getCurrentRoutine());
+            m_headlessAutoRunner.onAutonomousInit(m_autonomousCommand);
+        } else {
+            m_autonomousCommand = m_robotContainer.getAutonomousCommand();
+        }
         m_subsystemCheckCommand = m_robotContainer.getSubsystemCheckCommand();
 
         if (m_autonomousCommand != null) {
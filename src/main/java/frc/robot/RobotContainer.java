@@ -4,6 +4,8 @@
 
 package frc.robot;
 
+import java.util.List;
+
 import edu.wpi.first.math.geometry.Pose2d;
 import edu.wpi.first.wpilibj.DriverStation;
 import edu.wpi.first.wpilibj.GenericHID.RumbleType;
@@ -16,14 +18,20 @@ import edu.wpi.first.wpilibj2.command.ConditionalCommand;
 import edu.wpi.first.wpilibj2.command.InstantCommand;
 import edu.wpi.first.wpilibj2.command.WaitUntilCommand;
 import edu.wpi.first.wpilibj2.command.button.Trigger;
+import frc.lib.team5557.factory.SparkMaxFactory;
+import frc.lib.team5557.util.CANBusUtilization;
 import frc.robot.auto.AutoRoutineManager;
 import frc.robot.auto.SystemsCheckManager;
 import frc.robot.subsystems.elevator.Elevator;
+import frc.robot.subsystems.elevator.ElevatorConstants;
 import frc.robot.subsystems.elevator.ElevatorIO;
+import frc.robot.subsystems.elevator.ElevatorIOSim;
 import frc.robot.subsystems.elevator.ElevatorIOSparkMax;
 import frc.robot.subsystems.leds.LEDs;
 import frc.robot.subsystems.roller.Roller;
+import frc.robot.subsystems.roller.RollerConstants;
 import frc.robot.subsystems.roller.RollerIO;
+import frc.robot.subsystems.roller.RollerIOSim;
 import frc.robot.subsystems.roller.RollerIOSparkMax;
 import frc.robot.subsystems.superstructure.ObjectiveTracker;
 import frc.robot.subsystems.superstructure.Superstructure;
@@ -34,11 +42,14 @@ import frc.robot.subsystems.swerve.SwerveConstants;
 import frc.robot.subsystems.swerve.commands.TeleopDrive;
 import frc.robot.subsystems.swerve.gyro.GyroIO;
 import frc.robot.subsystems.swerve.gyro.GyroIOPigeon2;
+import frc.robot.subsystems.swerve.gyro.GyroIOSim;
 import frc.robot.subsystems.swerve.module.ModuleIO;
 import frc.robot.subsystems.swerve.module.ModuleIOSim;
 import frc.robot.subsystems.swerve.module.ModuleIOSparkMax;
 import frc.robot.subsystems.wrist.Wrist;
+import frc.robot.subsystems.wrist.WristConstants;
 import frc.robot.subsystems.wrist.WristIO;
+import frc.robot.subsystems.wrist.WristIOSim;
 import frc.robot.subsystems.wrist.WristIOSparkMax;
 import frc.robot.util.DriveMotionPlanner;
 import frc.robot.util.RobotStateEstimator;
@@ -62,6 +73,7 @@ public class RobotContainer {
     public RobotContainer() {
         m_leds = LEDs.getInstance();
         if (kIsReal) {
+            configureMotorsInBackground();
             m_swerve = new Swerve(new GyroIOPigeon2(),
                     new ModuleIOSparkMax(0, kFLDriveMotor, kFLTurnMotor, kFLCancoder, kFLOffset),
                     new ModuleIOSparkMax(1, kFRDriveMotor, kFRTurnMotor, kFRCancoder, kFROffset),
@@ -70,10 +82,16 @@ public class RobotContainer {
             m_elevator = new Elevator(new ElevatorIOSparkMax());
             m_wrist = new Wrist(new WristIOSparkMax());
             m_roller = new Roller(new RollerIOSparkMax());
-        } else {
-            m_swerve = new Swerve(new GyroIO() {
-            }, new ModuleIOSim(), new ModuleIOSim(),
+            CANBusUtilization.report();
+            SparkMaxFactory.printConfigReport();
+        } else if (!kIsReplay) {
+            m_swerve = new Swerve(
+                    new GyroIOSim(() -> m_swerve.getMeasuredChassisSpeeds().omegaRadiansPerSecond),
+                    new ModuleIOSim(), new ModuleIOSim(),
                     new ModuleIOSim(), new ModuleIOSim());
+            m_elevator = new Elevator(new ElevatorIOSim());
+            m_wrist = new Wrist(new WristIOSim());
+            m_roller = new Roller(new RollerIOSim());
         }
 
         // Instantiate missing subsystems
@@ -99,7 +117,7 @@ public class RobotContainer {
             });
         }
 
-        m_autoManager = new AutoRoutineManager(m_swerve, m_elevator);
+        m_autoManager = new AutoRoutineManager(m_elevator);
         m_systemCheckManager = new SystemsCheckManager(m_swerve);
         m_stateEstimator = RobotStateEstimator.getInstance();
         DriveMotionPlanner.configureControllers();
@@ -112,6 +130,25 @@ public class RobotContainer {
         shuffleboardTab.addString("Super State", () -> Superstructure.getCurrentGoal().name());
     }
 
+    /**
+     * Starts configuring every SparkMax at once, so each IO below only waits for its own
+     * controllers instead of configuring them one after another.
+     */
+    private void configureMotorsInBackground() {
+        System.out.println("[Init] Configuring motor controllers");
+        int[] driveMotors = { kFLDriveMotor, kFRDriveMotor, kBLDriveMotor, kBRDriveMotor };
+        int[] angleMotors = { kFLTurnMotor, kFRTurnMotor, kBLTurnMotor, kBRTurnMotor };
+        for (int i = 0; i < driveMotors.length; i++) {
+            SparkMaxFactory.configureInBackground(driveMotors[i],
+                    SwerveConstants.kDriveMotorConfiguration);
+            SparkMaxFactory.configureInBackground(angleMotors[i],
+                    SwerveConstants.kAngleMotorConfiguration);
+        }
+        SparkMaxFactory.configureInBackground(ElevatorConstants.kMasterMotorConfiguration);
+        SparkMaxFactory.configureInBackground(WristConstants.kMasterMotorConfiguration);
+        SparkMaxFactory.configureInBackground(RollerConstants.kRollerMotorConfiguration);
+    }
+
     private void configureBindings() {
         // Bind driver and operator controls
         System.out.println("[Init] Binding controls");
@@ -185,11 +222,11 @@ public class RobotContainer {
         // Endgame alerts
         new Trigger(() -> DriverStation.isTeleopEnabled() && DriverStation.getMatchTime() > 0.0
                 && DriverStation.getMatchTime() <= Math.round(30.0)).onTrue(Commands.run(() -> {
-                    LEDs.getInstance().endgameAlert = true;
+                    LEDs.getInstance().setEndgameAlert(true);
                     m_driver.setRumble(RumbleType.kBothRumble, 1.0);
                     m_operator.setRumble(RumbleType.kBothRumble, 1.0);
                 }).withTimeout(1.5).andThen(Commands.run(() -> {
-                    LEDs.getInstance().endgameAlert = false;
+                    LEDs.getInstance().setEndgameAlert(false);
                     m_driver.setRumble(RumbleType.kBothRumble, 0.0);
                     m_operator.setRumble(RumbleType.kBothRumble, 0.0);
                 }).withTimeout(1.0)));
@@ -197,19 +234,19 @@ public class RobotContainer {
         new Trigger(() -> DriverStation.isTeleopEnabled() && DriverStation.getMatchTime() > 0.0
                 && DriverStation.getMatchTime() <= Math.round(15.0))
                 .onTrue(Commands.sequence(Commands.run(() -> {
-                    LEDs.getInstance().endgameAlert = true;
+                    LEDs.getInstance().setEndgameAlert(true);
                     m_driver.setRumble(RumbleType.kBothRumble, 1.0);
                     m_operator.setRumble(RumbleType.kBothRumble, 1.0);
                 }).withTimeout(0.5), Commands.run(() -> {
-                    LEDs.getInstance().endgameAlert = false;
+                    LEDs.getInstance().setEndgameAlert(false);
                     m_driver.setRumble(RumbleType.kBothRumble, 0.0);
                     m_operator.setRumble(RumbleType.kBothRumble, 0.0);
                 }).withTimeout(0.5), Commands.run(() -> {
-                    LEDs.getInstance().endgameAlert = true;
+                    LEDs.getInstance().setEndgameAlert(true);
                     m_driver.setRumble(RumbleType.kBothRumble, 1.0);
                     m_operator.setRumble(RumbleType.kBothRumble, 1.0);
                 }).withTimeout(0.5), Commands.run(() -> {
-                    LEDs.getInstance().endgameAlert = false;
+                    LEDs.getInstance().setEndgameAlert(false);
                     m_driver.setRumble(RumbleType.kBothRumble, 0.0);
                     m_operator.setRumble(RumbleType.kBothRumble, 0.0);
                 }).withTimeout(1.0)));
@@ -220,6 +257,18 @@ public class RobotContainer {
         return m_autoManager.getAutoCommand();
     }
 
+    public Command getAutonomousCommand(String routineName) {
+        return m_autoManager.getAutoCommand(routineName);
+    }
+
+    public List<String> getAutonomousRoutineNames() {
+        return m_autoManager.getRoutineNames();
+    }
+
+    public void prewarmAutonomous(double loopElapsedSecs) {
+        m_autoManager.prewarm(loopElapsedSecs);
+    }
+
     public Command getSubsystemCheckCommand() {
         return m_systemCheckManager.getCheckCommand();
     }
@@ -248,19 +297,19 @@ public class RobotContainer {
         return Commands.sequence(Commands.run(() -> {
             m_driver.setRumble(RumbleType.kBothRumble, 0.75);
             m_operator.setRumble(RumbleType.kBothRumble, 0.75);
-            LEDs.getInstance().intakeCaught = true;
+            LEDs.getInstance().setIntakeCaught(true);
         }).withTimeout(0.25), Commands.run(() -> {
             m_driver.setRumble(RumbleType.kBothRumble, 0.0);
             m_operator.setRumble(RumbleType.kBothRumble, 0.0);
-            LEDs.getInstance().intakeCaught = false;
+            LEDs.getInstance().setIntakeCaught(false);
         }).withTimeout(0.25), Commands.run(() -> {
             m_driver.setRumble(RumbleType.kBothRumble, 0.75);
             m_operator.setRumble(RumbleType.kBothRumble, 0.75);
-            LEDs.getInstance().intakeCaught = true;
+            LEDs.getInstance().setIntakeCaught(true);
         }).withTimeout(0.25), Commands.run(() -> {
             m_driver.setRumble(RumbleType.kBothRumble, 0.0);
             m_operator.setRumble(RumbleType.kBothRumble, 0.0);
-            LEDs.getInstance().intakeCaught = false;
+            LEDs.getInstance().setIntakeCaught(false);
         }));
     }
 
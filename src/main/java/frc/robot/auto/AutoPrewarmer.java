@@ -0,0 +1,141 @@
+package frc.robot.auto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.littletonrobotics.junction.Logger;
+
+import com.pathplanner.lib.PathPlannerTrajectory;
+import edu.wpi.first.math.controller.PIDController;
+import edu.wpi.first.math.estimator.SwerveDrivePoseEstimator;
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.kinematics.ChassisSpeeds;
+import edu.wpi.first.math.kinematics.SwerveModulePosition;
+import edu.wpi.first.math.kinematics.SwerveModuleState;
+import frc.robot.Robot;
+import frc.robot.subsystems.swerve.Swerve;
+import frc.robot.subsystems.swerve.commands.FollowTrajectory;
+import frc.robot.util.IndexedTrajectory;
+import frc.robot.util.SwerveSetpoint;
+import frc.robot.util.SwerveSetpointGenerator;
+
+import static frc.robot.subsystems.swerve.SwerveConstants.*;
+
+/**
+ * Uses idle time while disabled to warm up the JIT on the path following loop of the selected
+ * auto: trajectory sampling, the follower's controller, setpoint generation and the pose estimator.
+ * Everything runs on private copies fed with synthetic inputs, so no robot state is touched. Work
+ * is done in slices sized to what is left of the loop period, and a slice is skipped when too
+ * little is left for it to be worth starting.
+ */
+public class AutoPrewarmer {
+    // Left for the logger and whatever else runs after robotPeriodic
+    private static final double kLoopMarginSecs = 0.003;
+    // Below this a slice barely gets past its first iteration
+    private static final double kMinSliceSecs = 0.001;
+    // Comfortably past the C2 compile thresholds, then stop using CPU
+    private static final int kTargetIterations = 20000;
+
+    private final PIDController m_forwardController =
+            new PIDController(kTranslationkP, kTranslationkI, kTranslationkD);
+    private final PIDController m_strafeController =
+            new PIDController(kTranslationkP, kTranslationkI, kTranslationkD);
+    private final PIDController m_rotationController =
+            new PIDController(kRotationkP, kRotationkI, kRotationkD);
+    private final ChassisSpeeds m_speeds = new ChassisSpeeds();
+    private final SwerveSetpointGenerator m_setpointGenerator =
+            new SwerveSetpointGenerator(Swerve.m_kinematics, kSwerveModuleLocations);
+    private final SwerveSetpoint m_setpoint = new SwerveSetpoint(new ChassisSpeeds(),
+            new SwerveModuleState[] {new SwerveModuleState(), new SwerveModuleState(),
+                    new SwerveModuleState(), new SwerveModuleState()});
+    private final SwerveModulePosition[] m_modulePositions = new SwerveModulePosition[4];
+    private SwerveDrivePoseEstimator m_poseEstimator;
+
+    private List<PathPlannerTrajectory> m_sourceTrajectories = List.of();
+    private List<IndexedTrajectory> m_trajectories = List.of();
+    private int m_trajectoryIndex = 0;
+    private double m_sampleTime = 0.0;
+    private double m_estimatorTime = 0.0;
+    private int m_iterations = 0;
+
+    public AutoPrewarmer() {
+        System.out.println("[Init] Creating AutoPrewarmer");
+        m_rotationController.enableContinuousInput(0, Math.PI * 2.0);
+        resetEstimator();
+    }
+
+    /**
+     * Runs one slice of warmup against these trajectories. Call at the end of the disabled loop.
+     *
+     * @param loopElapsedSecs Time already spent in this loop, the slice gets the rest of the period.
+     */
+    public void periodic(List<PathPlannerTrajectory> trajectories, double loopElapsedSecs) {
+        long startNanos = System.nanoTime();
+        double budgetSecs = Robot.defaultPeriodSecs - loopElapsedSecs - kLoopMarginSecs;
+
+        if (!trajectories.equals(m_sourceTrajectories)) {
+            m_sourceTrajectories = trajectories;
+            m_trajectories = new ArrayList<>();
+            for (PathPlannerTrajectory trajectory : trajectories) {
+                m_trajectories.add(new IndexedTrajectory(trajectory));
+            }
+            m_trajectoryIndex = 0;
+            m_sampleTime = 0.0;
+            m_iterations = 0;
+        }
+        if (m_trajectories.isEmpty() || m_iterations >= kTargetIterations
+                || budgetSecs < kMinSliceSecs) {
+            return;
+        }
+
+        long budgetNanos = (long) (budgetSecs * 1.0e9);
+        while (System.nanoTime() - startNanos < budgetNanos && m_iterations < kTargetIterations) {
+            step();
+            m_iterations++;
+        }
+        Logger.getInstance().recordOutput("Auto/PrewarmIterations", m_iterations);
+    }
+
+    /** One loop of path following against the next sample of the current trajectory. */
+    private void step() {
+        IndexedTrajectory trajectory = m_trajectories.get(m_trajectoryIndex);
+        if (m_sampleTime > trajectory.getTotalTimeSeconds()) {
+            m_trajectoryIndex = (m_trajectoryIndex + 1) % m_trajectories.size();
+            m_sampleTime = 0.0;
+            resetEstimator();
+            return;
+        }
+
+        trajectory.seek(m_sampleTime);
+        // Pretend the robot is lagging slightly behind so the feedback terms do real work
+        Pose2d measured = new Pose2d(trajectory.getX() - 0.05, trajectory.getY() + 0.03,
+                new Rotation2d(trajectory.getHolonomicRotationRadians() + 0.03));
+        FollowTrajectory.calculate(trajectory, measured, m_forwardController, m_strafeController,
+                m_rotationController, m_speeds);
+
+        ChassisSpeeds adjustedSpeeds = Swerve.correctForTwist(m_speeds, Robot.defaultPeriodSecs);
+        m_setpointGenerator.generateSetpoint(kPathFollowingLimits, m_setpoint, adjustedSpeeds,
+                Robot.defaultPeriodSecs, m_setpoint);
+        SwerveModuleState[] moduleStates = Swerve.m_kinematics.toSwerveModuleStates(adjustedSpeeds);
+
+        for (int i = 0; i < 4; i++) {
+            m_modulePositions[i] = new SwerveModulePosition(m_modulePositions[i].distanceMeters
+                    + moduleStates[i].speedMetersPerSecond * Robot.defaultPeriodSecs,
+                    moduleStates[i].angle);
+        }
+        m_estimatorTime += Robot.defaultPeriodSecs;
+        m_poseEstimator.updateWithTime(m_estimatorTime, measured.getRotation(), m_modulePositions);
+
+        m_sampleTime += Robot.defaultPeriodSecs;
+    }
+
+    private void resetEstimator() {
+        for (int i = 0; i < 4; i++) {
+            m_modulePositions[i] = new SwerveModulePosition();
+        }
+        m_estimatorTime = 0.0;
+        m_poseEstimator = new SwerveDrivePoseEstimator(Swerve.m_kinematics, new Rotation2d(),
+                m_modulePositions, new Pose2d());
+    }
+}
@@ -1,55 +1,70 @@
 package frc.robot.auto;
 
-import java.io.File;
-import java.io.FileFilter;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
 import org.littletonrobotics.junction.Logger;
 import org.littletonrobotics.junction.networktables.LoggedDashboardChooser;
 
-import com.pathplanner.lib.PathPlanner;
 import com.pathplanner.lib.PathPlannerTrajectory;
 import com.pathplanner.lib.PathPlannerTrajectory.PathPlannerState;
-import com.pathplanner.lib.commands.FollowPathWithEvents;
-import com.pathplanner.lib.commands.PPSwerveControllerCommand;
 import com.pathplanner.lib.server.PathPlannerServer;
 import edu.wpi.first.math.geometry.Pose2d;
 import edu.wpi.first.math.trajectory.Trajectory;
 import edu.wpi.first.wpilibj.DriverStation;
-import edu.wpi.first.wpilibj.Filesystem;
+import edu.wpi.first.wpilibj.DriverStation.Alliance;
 import edu.wpi.first.wpilibj2.command.Command;
 import edu.wpi.first.wpilibj2.command.Commands;
 import edu.wpi.first.wpilibj2.command.InstantCommand;
 import edu.wpi.first.wpilibj2.command.PrintCommand;
+import frc.lib.team6328.VirtualSubsystem;
 import frc.robot.Constants;
 import frc.robot.subsystems.elevator.Elevator;
 import frc.robot.subsystems.superstructure.Superstructure;
 import frc.robot.subsystems.superstructure.ObjectiveTracker.GamePiece;
 import frc.robot.subsystems.superstructure.ObjectiveTracker.NodeLevel;
-import frc.robot.subsystems.swerve.Swerve;
 import frc.robot.subsystems.swerve.SwerveConstants;
 import frc.robot.subsystems.swerve.commands.AutoBalance;
-import frc.robot.util.DriveMotionPlanner;
+import frc.robot.subsystems.swerve.commands.FollowTrajectory;
+import frc.robot.util.IndexedTrajectory;
 import frc.robot.util.RobotStateEstimator;
 
-public class AutoRoutineManager {
-    private final LoggedDashboardChooser<Command> m_chooser;
+public class AutoRoutineManager extends VirtualSubsystem {
+    private final LoggedDashboardChooser<String> m_chooser;
     private final HashMap<String, Command> m_eventMap;
-    private final HashMap<String, PathPlannerTrajectory> m_trajectoryMap;
+    private final Map<String, PathPlannerTrajectory> m_trajectoryMap = new ConcurrentHashMap<>();
+    private final Map<String, EventTimeline> m_timelineMap = new ConcurrentHashMap<>();
+    private final LinkedHashMap<String, AutoRoutine> m_routineMap = new LinkedHashMap<>();
+
+    // Loads trajectories for the selected routine while disabled, so autonomousInit never waits
+    private final ExecutorService m_prebuildExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "AutoPrebuild");
+        thread.setDaemon(true);
+        thread.setPriority(Thread.MIN_PRIORITY);
+        return thread;
+    });
+    private final AutoPrewarmer m_prewarmer = new AutoPrewarmer();
+    private String m_lastSelection = null;
+    private Alliance m_builtAlliance = null;
 
-    private final Swerve swerve;
     private final Elevator elevator;
 
-    public AutoRoutineManager(Swerve swerve, Elevator elevator) {
+    public AutoRoutineManager(Elevator elevator) {
         System.out.println("[Init] Creating Auto Routine Manager");
-        m_chooser = new LoggedDashboardChooser<Command>("AutonomousChooser");
+        m_chooser = new LoggedDashboardChooser<String>("AutonomousChooser");
         m_eventMap = new HashMap<>();
-        m_trajectoryMap = new HashMap<>();
 
-        this.swerve = swerve;
         this.elevator = elevator;
 
         generateEventMap();
-        generateTrajectories();
         generateAutoChoices();
         Logger.getInstance().recordOutput("AutoTraj", new Trajectory());
 
@@ -61,79 +76,154 @@ public class AutoRoutineManager {
     private void generateAutoChoices() {
         m_chooser.addDefaultOption("Do Nothing", null);
 
-        m_chooser.addOption("3 Piece (F)", Commands.sequence(new PrintCommand("Starting 3 piece"),
-                getPoseResetCommand(m_trajectoryMap.get("LeftToSweepToCubeScore")),
-                Superstructure.scoreConeLevel(NodeLevel.HIGH), elevator.tuckWaitCommand(10.0),
-                getFollowComand(m_trajectoryMap.get("LeftToSweepToCubeScore")),
-                Superstructure.scoreCubeLevel(NodeLevel.HIGH), elevator.tuckWaitCommand(10.0),
-                getFollowComand(m_trajectoryMap.get("LeftCubeScoreToLeftMidIntake")),
-                getFollowComand(m_trajectoryMap.get("LeftMidIntakeToConeScore")),
-                getFollowComand(m_trajectoryMap.get("ConeScoreToEvacLeft"))));
-
-        m_chooser.addOption("2 Piece + 1 + Balance (F)", Commands.sequence(
-                new PrintCommand("Starting 2 piece w/ balance"),
-                getPoseResetCommand(m_trajectoryMap.get("LeftToSweepToCubeScore")),
-                Superstructure.scoreConeLevel(NodeLevel.HIGH), elevator.tuckWaitCommand(10.0),
-                getFollowComand(m_trajectoryMap.get("LeftToSweepToCubeScore")),
-                Superstructure.scoreCubeLevel(NodeLevel.HIGH), elevator.tuckWaitCommand(10.0),
-                getFollowComand(m_trajectoryMap.get("LeftCubeScoreToLeftMidIntake")),
-                getFollowComand(m_trajectoryMap.get("LeftMidIntakeToBalance")),
-                AutoBalance.autoBalanceCommand()));
-
-        m_chooser.addOption("2 Piece (F)",
-                Commands.sequence(new PrintCommand("2 Piece (F)"),
-                        getPoseResetCommand(m_trajectoryMap.get("LeftToSweepToCubeScore")),
+        addRoutine("3 Piece (F)", new String[] {"LeftToSweepToCubeScore",
+                "LeftCubeScoreToLeftMidIntake", "LeftMidIntakeToConeScore", "ConeScoreToEvacLeft"},
+                () -> Commands.sequence(new PrintCommand("Starting 3 piece"),
+                        getPoseResetCommand(getTrajectory("LeftToSweepToCubeScore")),
+                        Superstructure.scoreConeLevel(NodeLevel.HIGH),
+                        elevator.tuckWaitCommand(10.0),
+                        getFollowComand("LeftToSweepToCubeScore"),
+                        Superstructure.scoreCubeLevel(NodeLevel.HIGH),
+                        elevator.tuckWaitCommand(10.0),
+                        getFollowComand("LeftCubeScoreToLeftMidIntake"),
+                        getFollowComand("LeftMidIntakeToConeScore"),
+                        getFollowComand("ConeScoreToEvacLeft")));
+
+        addRoutine("2 Piece + 1 + Balance (F)", new String[] {"LeftToSweepToCubeScore",
+                "LeftCubeScoreToLeftMidIntake", "LeftMidIntakeToBalance"},
+                () -> Commands.sequence(new PrintCommand("Starting 2 piece w/ balance"),
+                        getPoseResetCommand(getTrajectory("LeftToSweepToCubeScore")),
                         Superstructure.scoreConeLevel(NodeLevel.HIGH),
                         elevator.tuckWaitCommand(10.0),
-                        getFollowComand(m_trajectoryMap.get("LeftToSweepToCubeScore")),
+                        getFollowComand("LeftToSweepToCubeScore"),
+                        Superstructure.scoreCubeLevel(NodeLevel.HIGH),
+                        elevator.tuckWaitCommand(10.0),
+                        getFollowComand("LeftCubeScoreToLeftMidIntake"),
+                        getFollowComand("LeftMidIntakeToBalance"),
+                        AutoBalance.autoBalanceCommand()));
+
+        addRoutine("2 Piece (F)", new String[] {"LeftToSweepToCubeScore"},
+                () -> Commands.sequence(new PrintCommand("2 Piece (F)"),
+                        getPoseResetCommand(getTrajectory("LeftToSweepToCubeScore")),
+                        Superstructure.scoreConeLevel(NodeLevel.HIGH),
+                        elevator.tuckWaitCommand(10.0),
+                        getFollowComand("LeftToSweepToCubeScore"),
                         Superstructure.scoreCubeLevel(NodeLevel.HIGH)));
 
-        m_chooser.addOption("1 Piece + Evac/Intake (F)",
-                Commands.sequence(new PrintCommand("Starting 1 Piece + 1 Pause (F)"),
-                        getPoseResetCommand(m_trajectoryMap.get("LeftToSweepPause")),
+        addRoutine("1 Piece + Evac/Intake (F)", new String[] {"LeftToSweepPause"},
+                () -> Commands.sequence(new PrintCommand("Starting 1 Piece + 1 Pause (F)"),
+                        getPoseResetCommand(getTrajectory("LeftToSweepPause")),
                         Superstructure.scoreConeLevel(NodeLevel.HIGH),
                         elevator.tuckWaitCommand(10.0),
-                        getFollowComand(m_trajectoryMap.get("LeftToSweepPause"))));
-
-        m_chooser.addOption("Score Cone + Balance (M)", Commands.sequence(
-                new PrintCommand("Starting Score Cone + Balance"),
-                getPoseResetCommand(m_trajectoryMap.get("MiddleToBalance")),
-                Superstructure.scoreConeLevel(NodeLevel.HIGH), elevator.tuckWaitCommand(5.0),
-                getFollowComand(m_trajectoryMap.get("MiddleToBalance")),
-                AutoBalance.autoBalanceCommand()));
-
-        m_chooser.addOption("1 Piece + Evac/Intake (B)",
-                Commands.sequence(new PrintCommand("Starting 1 Piece + 1 Pause (B)"),
-                        getPoseResetCommand(m_trajectoryMap.get("RightToIntake")),
+                        getFollowComand("LeftToSweepPause")));
+
+        addRoutine("Score Cone + Balance (M)", new String[] {"MiddleToBalance"},
+                () -> Commands.sequence(new PrintCommand("Starting Score Cone + Balance"),
+                        getPoseResetCommand(getTrajectory("MiddleToBalance")),
+                        Superstructure.scoreConeLevel(NodeLevel.HIGH),
+                        elevator.tuckWaitCommand(5.0),
+                        getFollowComand("MiddleToBalance"),
+                        AutoBalance.autoBalanceCommand()));
+
+        addRoutine("1 Piece + Evac/Intake (B)", new String[] {"RightToIntake"},
+                () -> Commands.sequence(new PrintCommand("Starting 1 Piece + 1 Pause (B)"),
+                        getPoseResetCommand(getTrajectory("RightToIntake")),
                         Superstructure.scoreConeLevel(NodeLevel.HIGH),
                         elevator.tuckWaitCommand(10.0),
-                        getFollowComand(m_trajectoryMap.get("RightToIntake"))));
+                        getFollowComand("RightToIntake")));
 
-        m_chooser.addOption("Score Cone (A)",
-                Commands.sequence(new PrintCommand("Starting Score Cone"),
-                        getPoseResetCommand(m_trajectoryMap.get("RightToIntake")),
+        addRoutine("Score Cone (A)", new String[] {"RightToIntake"},
+                () -> Commands.sequence(new PrintCommand("Starting Score Cone"),
+                        getPoseResetCommand(getTrajectory("RightToIntake")),
                         Superstructure.scoreConeLevel(NodeLevel.HIGH)));
 
     }
 
-    private void generateTrajectories() {
-        File dir = new File(Filesystem.getDeployDirectory() + "/pathplanner");
-        FileFilter filter = new FileFilter() {
-            @Override
-            public boolean accept(File arg0) {
-                return !arg0.isDirectory() && arg0.getName().endsWith(".path");
+    private void addRoutine(String name, String[] trajectoryNames, Supplier<Command> builder) {
+        m_chooser.addOption(name, name);
+        m_routineMap.put(name, new AutoRoutine(trajectoryNames, builder));
+    }
+
+    @Override
+    public void periodic() {
+        if (!DriverStation.isDisabled()) {
+            return;
+        }
+
+        // The pose reset bakes in the alliance, so rebuild once it is known or changes
+        Alliance alliance = DriverStation.getAlliance();
+        if (alliance != m_builtAlliance) {
+            m_builtAlliance = alliance;
+            m_lastSelection = null;
+            for (AutoRoutine routine : m_routineMap.values()) {
+                routine.command = null;
+            }
+        }
+
+        String selection = m_chooser.get();
+        if (!Objects.equals(selection, m_lastSelection)) {
+            m_lastSelection = selection;
+            AutoRoutine routine = m_routineMap.get(selection);
+            if (routine != null && routine.command == null && routine.prebuild == null) {
+                routine.prebuild = m_prebuildExecutor.submit(() -> {
+                    for (String trajectoryName : routine.trajectoryNames) {
+                        getTimeline(trajectoryName);
+                    }
+                });
+            }
+        }
+
+        // Commands are not thread safe, so the graph is built here once the trajectories are loaded
+        AutoRoutine routine = m_routineMap.get(m_lastSelection);
+        if (routine != null && routine.command == null && routine.prebuild != null
+                && routine.prebuild.isDone()) {
+            routine.prebuild = null;
+            routine.command = routine.builder.get();
+            System.out.println("[Auto] Prebuilt " + m_lastSelection);
+        }
+        Logger.getInstance().recordOutput("Auto/SelectedRoutineReady",
+                routine == null || routine.command != null);
+    }
+
+    /**
+     * Spends what is left of the disabled loop warming up path following for the selected routine.
+     *
+     * @param loopElapsedSecs Time already spent in this loop.
+     */
+    public void prewarm(double loopElapsedSecs) {
+        m_prewarmer.periodic(getSelectedTrajectories(), loopElapsedSecs);
+    }
+
+    /** @return The trajectories of the selected routine that have finished loading. */
+    private List<PathPlannerTrajectory> getSelectedTrajectories() {
+        AutoRoutine routine = m_routineMap.get(m_lastSelection);
+        if (routine == null) {
+            return List.of();
+        }
+        List<PathPlannerTrajectory> trajectories = new ArrayList<>();
+        for (String trajectoryName : routine.trajectoryNames) {
+            PathPlannerTrajectory trajectory = m_trajectoryMap.get(trajectoryName);
+            if (trajectory != null) {
+                trajectories.add(trajectory);
             }
-        };
-
-        File[] files = dir.listFiles(filter);
-        for (File file : files) {
-            int index = file.getName().lastIndexOf('.');
-            String prefix = file.getName().substring(0, index);
-            m_trajectoryMap.put(prefix,
-                    PathPlanner.loadPath(prefix, SwerveConstants.kMaxAttainableSpeed,
-                            SwerveConstants.kMaxAttainableAcceleration));
-            System.out.println("Generated trajectory: " + prefix);
         }
+        return trajectories;
+    }
+
+    /** @return The trajectory with this name, loaded from the cache on first use. */
+    private PathPlannerTrajectory getTrajectory(String name) {
+        return m_trajectoryMap.computeIfAbsent(name, key -> {
+            PathPlannerTrajectory trajectory = TrajectoryCache.load(key,
+                    SwerveConstants.kMaxAttainableSpeed, SwerveConstants.kMaxAttainableAcceleration);
+            System.out.println("Loaded trajectory: " + key);
+            return trajectory;
+        });
+    }
+
+    /** @return The event timeline of the trajectory with this name, compiled on first use. */
+    private EventTimeline getTimeline(String name) {
+        return m_timelineMap.computeIfAbsent(name,
+                key -> EventTimeline.compile(getTrajectory(key).getMarkers()));
     }
 
     private void generateEventMap() {
@@ -147,22 +237,18 @@ public class AutoRoutineManager {
                 Superstructure.setSuperstructureScore(() -> NodeLevel.HIGH, () -> GamePiece.CUBE)));
     }
 
-    private Command getFollowComand(PathPlannerTrajectory path) {
-        PPSwerveControllerCommand followCommand = new PPSwerveControllerCommand(path,
-                RobotStateEstimator.getInstance()::getPose,
-                DriveMotionPlanner.getForwardController(), // X controller
-                DriveMotionPlanner.getStrafeController(), // Y controller
-                DriveMotionPlanner.getRotationController(), // Rotation controller
-                swerve::driveOpenLoop, // Module states consumer
-                true, // Should the path be mirrored depending on alliance color.
-                swerve // Requires swerve subsystem
-        );
+    private Command getFollowComand(String trajectoryName) {
+        // Mirrored at build time, routines are rebuilt when the alliance changes
+        IndexedTrajectory path = IndexedTrajectory.forAlliance(getTrajectory(trajectoryName),
+                DriverStation.getAlliance());
+        FollowTrajectory followCommand = new FollowTrajectory(path);
 
-        return new FollowPathWithEvents(followCommand, path.getMarkers(), m_eventMap).alongWith(
-                new InstantCommand(
-                        () -> Logger.getInstance().recordOutput("PathFollowing", path)),
-                new InstantCommand(() -> RobotStateEstimator.getInstance()
-                        .addFieldTrajectory("AutoTrajectory", path)));
+        return new FollowPathWithTimeline(followCommand, getTimeline(trajectoryName), m_eventMap)
+                .alongWith(
+                        new InstantCommand(
+                                () -> Logger.getInstance().recordOutput("PathFollowing", path)),
+                        new InstantCommand(() -> RobotStateEstimator.getInstance()
+                                .addFieldTrajectory("AutoTrajectory", path)));
     }
 
     private Command getPoseResetCommand(PathPlannerTrajectory path) {
@@ -175,11 +261,44 @@ public class AutoRoutineManager {
     }
 
     public Command getAutoCommand() {
-        return m_chooser.get();
+        return getAutoCommand(m_chooser.get());
+    }
+
+    /**
+     * @return The routine with this chooser name, or null if there is none. Built on the spot if
+     *         it was not prebuilt while disabled.
+     */
+    public Command getAutoCommand(String name) {
+        AutoRoutine routine = m_routineMap.get(name);
+        if (routine == null) {
+            return null;
+        }
+        if (routine.command == null) {
+            System.out.println("[Auto] " + name + " was not prebuilt, building now");
+            routine.command = routine.builder.get();
+        }
+        return routine.command;
+    }
+
+    /** @return The chooser names of every routine, in chooser order. */
+    public List<String> getRoutineNames() {
+        return new ArrayList<>(m_routineMap.keySet());
     }
 
     private void setPose(Pose2d pose) {
         RobotStateEstimator.getInstance().setPose(pose);
     }
 
+    private static class AutoRoutine {
+        final String[] trajectoryNames;
+        final Supplier<Command> builder;
+        Command command = null;
+        Future<?> prebuild = null;
+
+        AutoRoutine(String[] trajectoryNames, Supplier<Command> builder) {
+            this.trajectoryNames = trajectoryNames;
+            this.builder = builder;
+        }
+    }
+
 }
@@ -0,0 +1,64 @@
+package frc.robot.auto;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import com.pathplanner.lib.PathPlannerTrajectory.EventMarker;
+
+/**
+ * The event markers of a trajectory flattened into one entry per event name and sorted by time.
+ * Compiled once when the trajectory is loaded and never modified after, so one timeline can back
+ * any number of follow commands. The per-run cursor lives in {@link FollowPathWithTimeline}.
+ */
+public class EventTimeline {
+    private final double[] m_times;
+    private final String[] m_names;
+    private final String[] m_latencyKeys;
+
+    private EventTimeline(double[] times, String[] names) {
+        m_times = times;
+        m_names = names;
+        m_latencyKeys = new String[names.length];
+        for (int i = 0; i < names.length; i++) {
+            m_latencyKeys[i] = "Auto/Events/" + names[i] + "/LatencyMs";
+        }
+    }
+
+    public static EventTimeline compile(List<EventMarker> markers) {
+        List<EventMarker> sorted = new ArrayList<>(markers);
+        sorted.sort(Comparator.comparingDouble(marker -> marker.timeSeconds));
+
+        List<Double> times = new ArrayList<>();
+        List<String> names = new ArrayList<>();
+        for (EventMarker marker : sorted) {
+            for (String name : marker.names) {
+                times.add(marker.timeSeconds);
+                names.add(name);
+            }
+        }
+
+        double[] timeArray = new double[times.size()];
+        for (int i = 0; i < timeArray.length; i++) {
+            timeArray[i] = times.get(i);
+        }
+        return new EventTimeline(timeArray, names.toArray(new String[0]));
+    }
+
+    public int size() {
+        return m_times.length;
+    }
+
+    public double getTime(int index) {
+        return m_times[index];
+    }
+
+    public String getName(int index) {
+        return m_names[index];
+    }
+
+    /** @return The log key for the trigger latency of this entry, built once at compile time. */
+    public String getLatencyKey(int index) {
+        return m_latencyKeys[index];
+    }
+}
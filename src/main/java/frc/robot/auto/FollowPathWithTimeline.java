@@ -0,0 +1,99 @@
+package frc.robot.auto;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.littletonrobotics.junction.Logger;
+
+import edu.wpi.first.wpilibj.Timer;
+import edu.wpi.first.wpilibj2.command.Command;
+import edu.wpi.first.wpilibj2.command.CommandBase;
+
+/**
+ * Runs a path following command and starts event commands as the path passes their markers. Like
+ * PathPlanner's FollowPathWithEvents the event commands run inside this command, but the markers
+ * come from a precompiled {@link EventTimeline} walked by a cursor, so each loop only compares the
+ * time against the next entry. The delay between a marker's time and the loop that started it is
+ * logged per event.
+ */
+public class FollowPathWithTimeline extends CommandBase {
+    private final Command m_pathFollowingCommand;
+    private final EventTimeline m_timeline;
+    // Event command for each timeline entry, null for names missing from the event map
+    private final Command[] m_eventCommands;
+
+    private final List<Command> m_runningCommands = new ArrayList<>();
+    private final Timer m_timer = new Timer();
+    private int m_cursor = 0;
+    private boolean m_pathFinished = false;
+
+    public FollowPathWithTimeline(Command pathFollowingCommand, EventTimeline timeline,
+            Map<String, Command> eventMap) {
+        m_pathFollowingCommand = pathFollowingCommand;
+        m_timeline = timeline;
+        m_eventCommands = new Command[timeline.size()];
+
+        m_requirements.addAll(pathFollowingCommand.getRequirements());
+        for (int i = 0; i < timeline.size(); i++) {
+            m_eventCommands[i] = eventMap.get(timeline.getName(i));
+            if (m_eventCommands[i] != null) {
+                m_requirements.addAll(m_eventCommands[i].getRequirements());
+            }
+        }
+    }
+
+    @Override
+    public void initialize() {
+        m_runningCommands.clear();
+        m_cursor = 0;
+        m_pathFinished = false;
+
+        m_pathFollowingCommand.initialize();
+        m_runningCommands.add(m_pathFollowingCommand);
+        m_timer.restart();
+    }
+
+    @Override
+    public void execute() {
+        for (int i = 0; i < m_runningCommands.size(); i++) {
+            Command command = m_runningCommands.get(i);
+            command.execute();
+            if (command.isFinished()) {
+                command.end(false);
+                m_runningCommands.remove(i--);
+                if (command == m_pathFollowingCommand) {
+                    m_pathFinished = true;
+                }
+            }
+        }
+
+        double time = m_timer.get();
+        while (m_cursor < m_timeline.size() && time >= m_timeline.getTime(m_cursor)) {
+            Command eventCommand = m_eventCommands[m_cursor];
+            if (eventCommand != null) {
+                eventCommand.initialize();
+                if (!m_runningCommands.contains(eventCommand)) {
+                    m_runningCommands.add(eventCommand);
+                }
+            }
+            Logger.getInstance().recordOutput(m_timeline.getLatencyKey(m_cursor),
+                    (time - m_timeline.getTime(m_cursor)) * 1000.0);
+            m_cursor++;
+        }
+    }
+
+    @Override
+    public void end(boolean interrupted) {
+        m_timer.stop();
+        for (int i = 0; i < m_runningCommands.size(); i++) {
+            m_runningCommands.get(i).end(true);
+        }
+        m_runningCommands.clear();
+    }
+
+    @Override
+    public boolean isFinished() {
+        return m_pathFinished;
+    }
+}
@@ -0,0 +1,104 @@
+package frc.robot.auto;
+
+import java.util.List;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.wpilibj.Timer;
+import edu.wpi.first.wpilibj.simulation.DriverStationSim;
+import edu.wpi.first.wpilibj.simulation.SimHooks;
+import edu.wpi.first.wpilibj2.command.Command;
+import frc.robot.Robot;
+import frc.robot.util.RobotStateEstimator;
+
+/**
+ * Runs auto routines back to back in simulation without waiting on the wall clock. The HAL clock
+ * is paused and stepped by exactly one loop period after every loop, so the robot code sees the
+ * same timing as on the field while the loops themselves run as fast as the CPU allows. The driver
+ * station is toggled between disabled and autonomous for each routine, and the process exits once
+ * every routine has run. The exit code is non-zero if any routine timed out or had no command.
+ */
+public class HeadlessAutoRunner {
+    // Disabled time before each routine, so autonomousInit runs fresh
+    private static final double kDisabledSecs = 0.5;
+    // Give up on a routine after a full autonomous period
+    private static final double kTimeoutSecs = 15.0;
+
+    private final List<String> m_routines;
+    private int m_index = -1;
+    private boolean m_running = false;
+    private double m_phaseStartSecs = 0.0;
+    private long m_wallStartNanos = 0;
+    // Set once autonomousInit has asked for the current routine's command
+    private boolean m_initialized = false;
+    private Command m_command = null;
+    private int m_failures = 0;
+
+    public HeadlessAutoRunner(List<String> routines) {
+        System.out.println("[Init] Creating HeadlessAutoRunner for " + routines);
+        m_routines = routines;
+
+        SimHooks.pauseTiming();
+        DriverStationSim.setDsAttached(true);
+        DriverStationSim.setEnabled(false);
+        DriverStationSim.notifyNewData();
+        m_phaseStartSecs = Timer.getFPGATimestamp();
+    }
+
+    /** @return The routine that should run on the next autonomousInit. */
+    public String getCurrentRoutine() {
+        return m_index >= 0 && m_index < m_routines.size() ? m_routines.get(m_index) : null;
+    }
+
+    /** Called from autonomousInit with the command that was scheduled. */
+    public void onAutonomousInit(Command command) {
+        m_initialized = true;
+        m_command = command;
+    }
+
+    /** Called at the end of every robotPeriodic. Advances the driver station and the HAL clock. */
+    public void periodic() {
+        double now = Timer.getFPGATimestamp();
+        double elapsed = now - m_phaseStartSecs;
+
+        if (m_running) {
+            // The command is only scheduled on the loop after the driver station enables
+            boolean missing = m_initialized && m_command == null;
+            boolean finished = m_initialized && m_command != null && !m_command.isScheduled();
+            if (missing || finished || elapsed >= kTimeoutSecs) {
+                report(missing ? "had no command" : finished ? "finished" : "timed out", finished,
+                        elapsed);
+                DriverStationSim.setEnabled(false);
+                DriverStationSim.notifyNewData();
+                m_running = false;
+                m_initialized = false;
+                m_command = null;
+                m_phaseStartSecs = now;
+            }
+        } else if (elapsed >= kDisabledSecs) {
+            m_index++;
+            if (m_index >= m_routines.size()) {
+                System.out.println("[HeadlessAutoRunner] Ran " + m_routines.size() + " routines, "
+                        + m_failures + " failed");
+                System.exit(m_failures > 0 ? 1 : 0);
+            }
+            DriverStationSim.setAutonomous(true);
+            DriverStationSim.setEnabled(true);
+            DriverStationSim.notifyNewData();
+            m_running = true;
+            m_phaseStartSecs = now;
+            m_wallStartNanos = System.nanoTime();
+        }
+
+        SimHooks.stepTimingAsync(Robot.defaultPeriodSecs);
+    }
+
+    private void report(String outcome, boolean finished, double simSecs) {
+        if (!finished) {
+            m_failures++;
+        }
+        Pose2d pose = RobotStateEstimator.getInstance().getPose();
+        System.out.printf("[HeadlessAutoRunner] %s: %s after %.2f s sim in %.0f ms, final pose %s%n",
+                getCurrentRoutine(), outcome, simSecs,
+                (System.nanoTime() - m_wallStartNanos) * 1.0e-6, pose);
+    }
+}
@@ -0,0 +1,344 @@
+package frc.robot.auto;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import com.pathplanner.lib.PathPlanner;
+import com.pathplanner.lib.PathPlannerTrajectory;
+import com.pathplanner.lib.PathPlannerTrajectory.EventMarker;
+import com.pathplanner.lib.PathPlannerTrajectory.PathPlannerState;
+import com.pathplanner.lib.PathPlannerTrajectory.StopEvent;
+import com.pathplanner.lib.PathPlannerTrajectory.StopEvent.ExecutionBehavior;
+import com.pathplanner.lib.PathPlannerTrajectory.StopEvent.WaitBehavior;
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.geometry.Translation2d;
+import edu.wpi.first.math.trajectory.Trajectory;
+import edu.wpi.first.wpilibj.Filesystem;
+import edu.wpi.first.wpilibj.RobotBase;
+import frc.robot.subsystems.swerve.SwerveConstants;
+
+/**
+ * Binary cache of generated PathPlanner trajectories. Each .path file in deploy/pathplanner is
+ * generated once at build time (./gradlew generateTrajectoryCache, also run before deploy) into a
+ * .traj file of primitive columns under build/trajectoryCache, which deploys to
+ * deploy/pathplanner/generatedBinary. At startup the .traj file is memory mapped and turned back
+ * into a trajectory, and the .path JSON is only parsed and generated again if the cached file is
+ * missing or was built from a different .path file, different constraints or a different
+ * PathPlannerLib.
+ *
+ * <p>
+ * File layout, big endian: magic, format version, SHA-256 of the source, state count and column
+ * count, then one column of doubles per state field, then the event markers and stop events.
+ */
+public class TrajectoryCache {
+    public static final String kCacheDirectoryName = "generatedBinary";
+    // Where simulation finds the cache, relative to the project directory
+    public static final String kSimCacheDirectory = "build/trajectoryCache";
+    public static final String kCacheExtension = ".traj";
+
+    private static final int kMagic = 0x5452414A; // "TRAJ"
+    private static final int kFormatVersion = 1;
+    private static final int kHashBytes = 32;
+    private static final int kHeaderBytes = 4 + 4 + kHashBytes + 4 + 4;
+
+    private static final int kTime = 0;
+    private static final int kX = 1;
+    private static final int kY = 2;
+    private static final int kHeading = 3;
+    private static final int kVelocity = 4;
+    private static final int kAcceleration = 5;
+    private static final int kCurvature = 6;
+    private static final int kAngularVelocity = 7;
+    private static final int kHolonomicRotation = 8;
+    private static final int kHolonomicAngularVelocity = 9;
+    private static final int kColumnCount = 10;
+
+    private static byte[] m_libraryVersion = null;
+    private static int m_cacheHits = 0;
+    private static int m_cacheMisses = 0;
+
+    /** @return The directory holding the .path files. */
+    public static File getPathDirectory() {
+        return new File(Filesystem.getDeployDirectory(), "pathplanner");
+    }
+
+    /**
+     * Loads a trajectory from the binary cache, generating it from the .path file if the cache is
+     * missing or stale.
+     */
+    public static synchronized PathPlannerTrajectory load(String name, double maxVelocity,
+            double maxAcceleration) {
+        File pathFile = new File(getPathDirectory(), name + ".path");
+        File cacheFile = getCacheFile(getCacheDirectory(), name);
+        try {
+            byte[] hash = hash(Files.readAllBytes(pathFile.toPath()), maxVelocity, maxAcceleration);
+            if (cacheFile.isFile()) {
+                PathPlannerTrajectory trajectory = read(cacheFile, hash);
+                if (trajectory != null) {
+                    m_cacheHits++;
+                    return trajectory;
+                }
+                System.out.println("[TrajectoryCache] Stale cache for " + name
+                        + ", run ./gradlew generateTrajectoryCache");
+            } else {
+                System.out.println("[TrajectoryCache] No cache for " + name);
+            }
+        } catch (IOException e) {
+            System.out.println("[TrajectoryCache] Failed to read cache for " + name + ": " + e);
+        }
+
+        m_cacheMisses++;
+        return PathPlanner.loadPath(name, maxVelocity, maxAcceleration);
+    }
+
+    /** @return The number of trajectories loaded from the cache. */
+    public static int getCacheHits() {
+        return m_cacheHits;
+    }
+
+    /** @return The number of trajectories that had to be generated from JSON. */
+    public static int getCacheMisses() {
+        return m_cacheMisses;
+    }
+
+    private static File getCacheDirectory() {
+        return RobotBase.isReal()
+                ? new File(getPathDirectory(), kCacheDirectoryName)
+                : new File(kSimCacheDirectory);
+    }
+
+    private static File getCacheFile(File cacheDirectory, String name) {
+        return new File(cacheDirectory, name + kCacheExtension);
+    }
+
+    /**
+     * Hashes the source of a trajectory. The constraints, format version and PathPlannerLib version
+     * are included so the cache goes stale when any of them changes.
+     */
+    private static byte[] hash(byte[] pathJson, double maxVelocity, double maxAcceleration)
+            throws IOException {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(pathJson);
+            digest.update(getLibraryVersion());
+            digest.update(ByteBuffer.allocate(4 + 8 + 8).putInt(kFormatVersion)
+                    .putDouble(maxVelocity).putDouble(maxAcceleration).array());
+            return digest.digest();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * The robot jar bundles every library under one manifest, so PathPlannerLib's version string
+     * is not available at runtime. The bytecode of the classes that generate trajectories stands in
+     * for it, and changes with every release that could generate different states.
+     *
+     * @return A SHA-256 of PathPlannerLib's trajectory generation classes.
+     */
+    private static synchronized byte[] getLibraryVersion() throws IOException {
+        if (m_libraryVersion == null) {
+            try {
+                MessageDigest digest = MessageDigest.getInstance("SHA-256");
+                for (Class<?> generator : new Class<?>[] { PathPlanner.class,
+                        PathPlannerTrajectory.class }) {
+                    String resource = generator.getSimpleName() + ".class";
+                    try (InputStream input = generator.getResourceAsStream(resource)) {
+                        if (input == null) {
+                            throw new IOException("Missing " + generator.getName() + " bytecode");
+                        }
+                        digest.update(input.readAllBytes());
+                    }
+                }
+                m_libraryVersion = digest.digest();
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+        return m_libraryVersion;
+    }
+
+    /** @return The cached trajectory, or null if the file was built from a different source. */
+    private static PathPlannerTrajectory read(File cacheFile, byte[] expectedHash)
+            throws IOException {
+        ByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(cacheFile.toPath(), StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+
+        if (buffer.getInt() != kMagic || buffer.getInt() != kFormatVersion) {
+            return null;
+        }
+        byte[] hash = new byte[kHashBytes];
+        buffer.get(hash);
+        if (!Arrays.equals(hash, expectedHash)) {
+            return null;
+        }
+        int stateCount = buffer.getInt();
+        int columnCount = buffer.getInt();
+        if (columnCount != kColumnCount) {
+            return null;
+        }
+
+        double[][] columns = new double[kColumnCount][stateCount];
+        DoubleBuffer doubles = buffer.slice().asDoubleBuffer();
+        for (double[] column : columns) {
+            doubles.get(column);
+        }
+        buffer.position(buffer.position() + kColumnCount * stateCount * Double.BYTES);
+
+        List<Trajectory.State> states = new ArrayList<>(stateCount);
+        for (int i = 0; i < stateCount; i++) {
+            PathPlannerState state = new PathPlannerState();
+            state.timeSeconds = columns[kTime][i];
+            state.poseMeters = new Pose2d(columns[kX][i], columns[kY][i],
+                    new Rotation2d(columns[kHeading][i]));
+            state.velocityMetersPerSecond = columns[kVelocity][i];
+            state.accelerationMetersPerSecondSq = columns[kAcceleration][i];
+            state.curvatureRadPerMeter = columns[kCurvature][i];
+            state.angularVelocityRadPerSec = columns[kAngularVelocity][i];
+            state.holonomicRotation = new Rotation2d(columns[kHolonomicRotation][i]);
+            state.holonomicAngularVelocityRadPerSec = columns[kHolonomicAngularVelocity][i];
+            states.add(state);
+        }
+
+        int markerCount = buffer.getInt();
+        List<EventMarker> markers = new ArrayList<>(markerCount);
+        for (int i = 0; i < markerCount; i++) {
+            EventMarker marker = new EventMarker(readNames(buffer), buffer.getDouble());
+            marker.timeSeconds = buffer.getDouble();
+            marker.positionMeters = new Translation2d(buffer.getDouble(), buffer.getDouble());
+            markers.add(marker);
+        }
+        StopEvent startStopEvent = readStopEvent(buffer);
+        StopEvent endStopEvent = readStopEvent(buffer);
+
+        return new PathPlannerTrajectory(states, markers, startStopEvent, endStopEvent, true);
+    }
+
+    private static List<String> readNames(ByteBuffer buffer) {
+        int count = buffer.getInt();
+        List<String> names = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            byte[] bytes = new byte[buffer.getInt()];
+            buffer.get(bytes);
+            names.add(new String(bytes, StandardCharsets.UTF_8));
+        }
+        return names;
+    }
+
+    private static StopEvent readStopEvent(ByteBuffer buffer) {
+        List<String> names = readNames(buffer);
+        ExecutionBehavior executionBehavior = ExecutionBehavior.values()[buffer.getInt()];
+        WaitBehavior waitBehavior = WaitBehavior.values()[buffer.getInt()];
+        return new StopEvent(names, executionBehavior, waitBehavior, buffer.getDouble());
+    }
+
+    private static void write(PathPlannerTrajectory trajectory, byte[] hash, File cacheFile)
+            throws IOException {
+        int stateCount = trajectory.getStates().size();
+        double[][] columns = new double[kColumnCount][stateCount];
+        for (int i = 0; i < stateCount; i++) {
+            PathPlannerState state = trajectory.getState(i);
+            columns[kTime][i] = state.timeSeconds;
+            columns[kX][i] = state.poseMeters.getX();
+            columns[kY][i] = state.poseMeters.getY();
+            columns[kHeading][i] = state.poseMeters.getRotation().getRadians();
+            columns[kVelocity][i] = state.velocityMetersPerSecond;
+            columns[kAcceleration][i] = state.accelerationMetersPerSecondSq;
+            columns[kCurvature][i] = state.curvatureRadPerMeter;
+            columns[kAngularVelocity][i] = state.angularVelocityRadPerSec;
+            columns[kHolonomicRotation][i] = state.holonomicRotation.getRadians();
+            columns[kHolonomicAngularVelocity][i] = state.holonomicAngularVelocityRadPerSec;
+        }
+
+        try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(new FileOutputStream(cacheFile)))) {
+            out.writeInt(kMagic);
+            out.writeInt(kFormatVersion);
+            out.write(hash);
+            out.writeInt(stateCount);
+            out.writeInt(kColumnCount);
+            for (double[] column : columns) {
+                for (double value : column) {
+                    out.writeDouble(value);
+                }
+            }
+
+            List<EventMarker> markers = trajectory.getMarkers();
+            out.writeInt(markers.size());
+            for (EventMarker marker : markers) {
+                writeNames(out, marker.names);
+                out.writeDouble(marker.waypointRelativePos);
+                out.writeDouble(marker.timeSeconds);
+                out.writeDouble(marker.positionMeters.getX());
+                out.writeDouble(marker.positionMeters.getY());
+            }
+            writeStopEvent(out, trajectory.getStartStopEvent());
+            writeStopEvent(out, trajectory.getEndStopEvent());
+        }
+    }
+
+    private static void writeNames(DataOutputStream out, List<String> names) throws IOException {
+        out.writeInt(names.size());
+        for (String name : names) {
+            byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+    }
+
+    private static void writeStopEvent(DataOutputStream out, StopEvent event) throws IOException {
+        writeNames(out, event.names);
+        out.writeInt(event.executionBehavior.ordinal());
+        out.writeInt(event.waitBehavior.ordinal());
+        out.writeDouble(event.waitTime);
+    }
+
+    /**
+     * Build step that regenerates the cache for every .path file into the directory given as the
+     * only argument. Run from the project directory so the deploy directory resolves to
+     * src/main/deploy.
+     */
+    public static void main(String[] args) throws IOException {
+        File cacheDirectory = new File(args.length > 0 ? args[0] : kSimCacheDirectory);
+        cacheDirectory.mkdirs();
+
+        File[] files = getPathDirectory().listFiles(
+                (File file) -> !file.isDirectory() && file.getName().endsWith(".path"));
+        List<String> names = new ArrayList<>();
+        for (File file : files) {
+            String name = file.getName().substring(0, file.getName().lastIndexOf('.'));
+            byte[] hash = hash(Files.readAllBytes(file.toPath()),
+                    SwerveConstants.kMaxAttainableSpeed, SwerveConstants.kMaxAttainableAcceleration);
+            File cacheFile = getCacheFile(cacheDirectory, name);
+            write(PathPlanner.loadPath(name, SwerveConstants.kMaxAttainableSpeed,
+                    SwerveConstants.kMaxAttainableAcceleration), hash, cacheFile);
+            names.add(cacheFile.getName());
+            System.out.println("[TrajectoryCache] Wrote " + cacheFile);
+        }
+
+        // Drop caches for .path files that no longer exist
+        for (File file : cacheDirectory.listFiles()) {
+            if (!names.contains(file.getName())) {
+                file.delete();
+            }
+        }
+    }
+}
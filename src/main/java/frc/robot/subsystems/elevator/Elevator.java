@@ -14,6 +14,8 @@ import edu.wpi.first.wpilibj2.command.InstantCommand;
 import edu.wpi.first.wpilibj2.command.RunCommand;
 import edu.wpi.first.wpilibj2.command.SubsystemBase;
 import edu.wpi.first.wpilibj2.command.WaitUntilCommand;
+import frc.lib.team5557.util.LoopTimer;
+import frc.lib.team6328.TunableGroup;
 import frc.lib.team6328.TunableNumber;
 import frc.robot.subsystems.elevator.ElevatorIO.ElevatorIOInputs;
 import frc.robot.util.Util;
@@ -21,6 +23,7 @@ import frc.robot.util.Util;
 public class Elevator extends SubsystemBase {
     private final ElevatorIO m_io;
     private final ElevatorIOInputs m_inputs = new ElevatorIOInputs();
+    private final LoopTimer.Section m_loopTiming = LoopTimer.getSection("Subsystems/Elevator");
 
     private ControlMode m_mode = ControlMode.OPEN_LOOP;
 
@@ -32,8 +35,11 @@ public class Elevator extends SubsystemBase {
     private double m_profileTimestamp = 0.0;
     private double m_demand = 0.0;
 
-    public final TunableNumber cruiseVelocity = new TunableNumber("Elevator/cruiseVelocity", kCruiseVelocity);
-    public final TunableNumber desiredTimeToSpeed = new TunableNumber("Elevator/desiredTimeToSpeed", kTimeToCruise);
+    private final TunableGroup m_profileTunables = new TunableGroup();
+    public final TunableNumber cruiseVelocity =
+            m_profileTunables.add("Elevator/cruiseVelocity", kCruiseVelocity);
+    public final TunableNumber desiredTimeToSpeed =
+            m_profileTunables.add("Elevator/desiredTimeToSpeed", kTimeToCruise);
 
     public enum ControlMode {
         OPEN_LOOP, VOLTAGE, POSITION, MOTION_PROFILE
@@ -41,6 +47,7 @@ public class Elevator extends SubsystemBase {
 
     public Elevator(ElevatorIO io) {
         System.out.println("[Init] Creating Elevator");
+        m_profileTunables.onChange(this::updateConstraints);
         this.m_io = io;
 
 
@@ -67,6 +74,7 @@ public class Elevator extends SubsystemBase {
 
     @Override
     public void periodic() {
+        m_loopTiming.start();
         m_io.updateInputs(m_inputs);
         Logger.getInstance().processInputs("Elevator", m_inputs);
         Logger.getInstance().recordOutput("Elevator/Demand", m_demand);
@@ -84,11 +92,12 @@ public class Elevator extends SubsystemBase {
             Logger.getInstance().recordOutput("Elevator/Setpoint", m_setpoint.position);
         }
 
-        if (cruiseVelocity.hasChanged(cruiseVelocity.hashCode())
-                || desiredTimeToSpeed.hasChanged(desiredTimeToSpeed.hashCode())) {
-            m_constraints = new TrapezoidProfile.Constraints(cruiseVelocity.get(),
-                    (cruiseVelocity.get() / desiredTimeToSpeed.get()));
-        }
+        m_loopTiming.stop();
+    }
+
+    private void updateConstraints() {
+        m_constraints = new TrapezoidProfile.Constraints(cruiseVelocity.get(),
+                (cruiseVelocity.get() / desiredTimeToSpeed.get()));
     }
 
     private synchronized void runOpenLoop(double percent) {
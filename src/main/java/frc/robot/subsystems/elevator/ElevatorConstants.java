@@ -5,6 +5,7 @@ import com.revrobotics.CANSparkMax.IdleMode;
 import edu.wpi.first.math.MathUtil;
 import frc.lib.team5557.factory.SparkMaxFactory.PIDConfiguration;
 import frc.lib.team5557.factory.SparkMaxFactory.SoftLimitsConfiguration;
+import frc.lib.team5557.factory.SparkMaxFactory.FrameProfile;
 import frc.lib.team5557.factory.SparkMaxFactory.SparkMaxConfiguration;
 import frc.lib.team5557.util.CANDeviceId;
 import frc.lib.team5557.util.CANDeviceId.CANDeviceType;
@@ -64,6 +65,7 @@ public class ElevatorConstants {
         kMasterMotorConfiguration.kShouldInvert = false;
         kMasterMotorConfiguration.kIdleMode = IdleMode.kBrake;
 
+        kMasterMotorConfiguration.frames = FrameProfile.leader().withPositionPeriod(10);
     }
 
     public static double rotationsToInches(double rotations) {
@@ -16,6 +16,7 @@ public interface ElevatorIO {
         public void toLog(LogTable table) {
             table.put("ElevatorHeightInches", ElevatorHeightInches);
             table.put("ElevatorVelocityInchesPerSecond", ElevatorVelocityInchesPerSecond);
+            table.put("ElevatorAtLowerLimit", ElevatorAtLowerLimit);
             table.put("ElevatorAppliedVolts", ElevatorAppliedVolts);
             table.put("ElevatorCurrentAmps", ElevatorCurrentAmps);
             table.put("ElevatorTempCelsius", ElevatorTempCelsius);
@@ -23,7 +24,8 @@ public interface ElevatorIO {
 
         public void fromLog(LogTable table) {
             ElevatorHeightInches = table.getDouble("ElevatorHeightInches", ElevatorHeightInches);
-            ElevatorVelocityInchesPerSecond = table.getDouble("ElevatorVelocityRPM", ElevatorVelocityInchesPerSecond);
+            ElevatorVelocityInchesPerSecond = table.getDouble("ElevatorVelocityInchesPerSecond", ElevatorVelocityInchesPerSecond);
+            ElevatorAtLowerLimit = table.getBoolean("ElevatorAtLowerLimit", ElevatorAtLowerLimit);
             ElevatorAppliedVolts = table.getDouble("ElevatorAppliedVolts", ElevatorAppliedVolts);
             ElevatorCurrentAmps = table.getDoubleArray("ElevatorCurrentAmps", ElevatorCurrentAmps);
             ElevatorTempCelsius = table.getDoubleArray("ElevatorTempCelsius", ElevatorTempCelsius);
@@ -0,0 +1,76 @@
+package frc.robot.subsystems.elevator;
+
+import edu.wpi.first.math.MathUtil;
+import edu.wpi.first.math.controller.ElevatorFeedforward;
+import edu.wpi.first.math.controller.PIDController;
+import edu.wpi.first.math.system.plant.DCMotor;
+import edu.wpi.first.math.util.Units;
+import edu.wpi.first.wpilibj.simulation.ElevatorSim;
+import frc.robot.Robot;
+
+import static frc.robot.subsystems.elevator.ElevatorConstants.*;
+
+public class ElevatorIOSim implements ElevatorIO {
+    private static final double kCarriageMassKg = 8.0;
+
+    private final ElevatorSim m_sim = new ElevatorSim(DCMotor.getNEO(1), kGearReduction, kCarriageMassKg,
+            Units.inchesToMeters(kSprocketPitchDiameter / 2.0), Units.inchesToMeters(kMinHeight),
+            Units.inchesToMeters(kMaxHeight), true);
+
+    // Same gain as the SparkMax loop, converted from duty cycle per rotation to volts per inch
+    private final PIDController m_pid = new PIDController(12.0 * kElevatorkP * kRotationsPerInch,
+            12.0 * kElevatorkI * kRotationsPerInch, 12.0 * kElevatorkD * kRotationsPerInch);
+    private final ElevatorFeedforward m_feedforward = new ElevatorFeedforward(kElevatorkS, kElevatorkG,
+            kElevatorkV, kElevatorkA);
+
+    private boolean m_closedLoop = false;
+    private double m_targetHeightInches = 0.0;
+    private double m_feedforwardVolts = 0.0;
+    private double m_appliedVolts = 0.0;
+    private double m_positionOffsetInches = 0.0;
+
+    public ElevatorIOSim() {
+        System.out.println("[Init] Creating ElevatorIOSim");
+    }
+
+    /** Updates the set of loggable inputs. */
+    public void updateInputs(ElevatorIOInputs inputs) {
+        if (m_closedLoop) {
+            m_appliedVolts = MathUtil.clamp(m_pid.calculate(getHeightInches(), m_targetHeightInches)
+                    + m_feedforwardVolts, -12.0, 12.0);
+        }
+        m_sim.setInputVoltage(m_appliedVolts);
+        m_sim.update(Robot.defaultPeriodSecs);
+
+        inputs.ElevatorHeightInches = getHeightInches();
+        inputs.ElevatorVelocityInchesPerSecond = Units.metersToInches(m_sim.getVelocityMetersPerSecond());
+        inputs.ElevatorAtLowerLimit = m_sim.hasHitLowerLimit();
+        inputs.ElevatorAppliedVolts = m_appliedVolts;
+        inputs.ElevatorCurrentAmps = new double[] { Math.abs(m_sim.getCurrentDrawAmps()) };
+        inputs.ElevatorTempCelsius = new double[] {};
+    }
+
+    private double getHeightInches() {
+        return Units.metersToInches(m_sim.getPositionMeters()) + m_positionOffsetInches;
+    }
+
+    /** Run the Elevator open loop at the specified voltage. */
+    public void setVoltage(double volts) {
+        m_closedLoop = false;
+        m_appliedVolts = MathUtil.clamp(volts, -12.0, 12.0);
+    }
+
+    public void setPercent(double percent) {
+        setVoltage(percent * 12.0);
+    }
+
+    public void setHeightInches(double targetHeightInches, double targetVelocityInchesPerSec) {
+        m_closedLoop = true;
+        m_targetHeightInches = targetHeightInches;
+        m_feedforwardVolts = m_feedforward.calculate(targetVelocityInchesPerSec, 0.0);
+    }
+
+    public void resetSensorPosition(double heightInches) {
+        m_positionOffsetInches = heightInches - Units.metersToInches(m_sim.getPositionMeters());
+    }
+}
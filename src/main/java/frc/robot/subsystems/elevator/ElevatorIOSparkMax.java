@@ -10,6 +10,8 @@ import com.revrobotics.CANSparkMax.SoftLimitDirection;
 import edu.wpi.first.math.controller.ElevatorFeedforward;
 import frc.lib.team5557.factory.BurnManager;
 import frc.lib.team5557.factory.SparkMaxFactory;
+import frc.lib.team5557.factory.SparkMaxGains;
+import frc.lib.team6328.TunableGroup;
 import frc.lib.team6328.TunableNumber;
 
 import static frc.robot.subsystems.elevator.ElevatorConstants.*;
@@ -22,9 +24,11 @@ public class ElevatorIOSparkMax implements ElevatorIO {
     private final SparkMaxPIDController m_pid;
     private final ElevatorFeedforward m_feedforward;
 
-    private final TunableNumber elevatorkP = new TunableNumber("Elevator/ElevatorkP", kElevatorkP);
-    private final TunableNumber elevatorkI = new TunableNumber("Elevator/ElevatorkI", kElevatorkI);
-    private final TunableNumber elevatorkD = new TunableNumber("Elevator/ElevatorkD", kElevatorkD);
+    private final SparkMaxGains m_gains;
+    private final TunableGroup m_tunableGains = new TunableGroup();
+    private final TunableNumber elevatorkP = m_tunableGains.add("Elevator/ElevatorkP", kElevatorkP);
+    private final TunableNumber elevatorkI = m_tunableGains.add("Elevator/ElevatorkI", kElevatorkI);
+    private final TunableNumber elevatorkD = m_tunableGains.add("Elevator/ElevatorkD", kElevatorkD);
 
     public ElevatorIOSparkMax() {
         System.out.println("[Init] Creating ElevatorIOSparkMax");
@@ -33,9 +37,8 @@ public class ElevatorIOSparkMax implements ElevatorIO {
 
         m_encoder = m_master.getEncoder();
         m_pid = m_master.getPIDController();
-
-        SparkMaxFactory.configFramesLeaderOrFollower(m_master);
-        SparkMaxFactory.configFramesPositionBoost(m_master);
+        m_gains = new SparkMaxGains(m_master, 0, kPIDConfiguration);
+        m_tunableGains.onChange(this::applyGains);
 
         m_feedforward = new ElevatorFeedforward(kElevatorkS, kElevatorkG, kElevatorkV, kElevatorkA);
     }
@@ -48,14 +51,10 @@ public class ElevatorIOSparkMax implements ElevatorIO {
         inputs.ElevatorAppliedVolts = m_master.getAppliedOutput() * m_master.getBusVoltage();
         inputs.ElevatorCurrentAmps = new double[] { m_master.getOutputCurrent() };
         inputs.ElevatorTempCelsius = new double[] { m_master.getMotorTemperature() };
+    }
 
-        // update tunables
-        if (elevatorkP.hasChanged(elevatorkP.hashCode()) || elevatorkI.hasChanged(elevatorkI.hashCode())
-                || elevatorkD.hasChanged(elevatorkD.hashCode())) {
-            m_pid.setP(elevatorkP.get());
-            m_pid.setI(elevatorkI.get());
-            m_pid.setD(elevatorkD.get());
-        }
+    private void applyGains() {
+        m_gains.set(elevatorkP.get(), elevatorkI.get(), elevatorkD.get());
     }
 
     /** Run the Elevator open loop at the specified voltage. */
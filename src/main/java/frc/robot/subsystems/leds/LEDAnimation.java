@@ -0,0 +1,148 @@
+package frc.robot.subsystems.leds;
+
+import java.util.List;
+
+import edu.wpi.first.wpilibj.AddressableLEDBuffer;
+import edu.wpi.first.wpilibj.util.Color;
+
+/**
+ * An LED pattern precomputed into a table of frames, each frame holding one packed 0xRRGGBB int per
+ * pixel. Frames are sampled every {@link #kFrameSecs} over one period of the pattern, so showing it
+ * is an index into the table and a copy into the buffer, with no math or allocation per loop.
+ * Pixels outside the pattern's section, and {@link #kTransparent} pixels, leave the layers below
+ * visible when composited.
+ */
+public class LEDAnimation {
+    public static final double kFrameSecs = 0.01;
+    public static final int kTransparent = -1;
+    private static final double waveExponent = 0.4;
+
+    private final int[] m_frames;
+    private final int m_start;
+    private final int m_pixels;
+    private final int m_frameCount;
+    private final double m_periodSecs;
+
+    private LEDAnimation(int start, int pixels, double periodSecs) {
+        m_start = start;
+        m_pixels = pixels;
+        m_periodSecs = periodSecs;
+        m_frameCount = Math.max(1, (int) Math.round(periodSecs / kFrameSecs));
+        m_frames = new int[m_frameCount * pixels];
+    }
+
+    /** @return The fraction of the period at the start of the frame. */
+    private double phase(int frame) {
+        return (double) frame / m_frameCount;
+    }
+
+    private void set(int frame, int pixel, int rgb) {
+        m_frames[frame * m_pixels + pixel - m_start] = rgb;
+    }
+
+    /** @return The index in the table of the first pixel of the frame for this timestamp. */
+    public int getFrameOffset(double timestamp) {
+        int frame = (int) ((timestamp % m_periodSecs) / m_periodSecs * m_frameCount);
+        return Math.min(frame, m_frameCount - 1) * m_pixels;
+    }
+
+    /** @return The packed color of a strip pixel in the frame, transparent outside the section. */
+    public int getPixel(int frameOffset, int pixel) {
+        if (pixel < m_start || pixel >= m_start + m_pixels) {
+            return kTransparent;
+        }
+        return m_frames[frameOffset + pixel - m_start];
+    }
+
+    /** Copies the frame for this timestamp into the buffer, transparent pixels as off. */
+    public void render(double timestamp, AddressableLEDBuffer buffer) {
+        int offset = getFrameOffset(timestamp);
+        for (int i = 0; i < m_pixels; i++) {
+            int rgb = Math.max(0, m_frames[offset + i]);
+            buffer.setRGB(m_start + i, (rgb >> 16) & 0xff, (rgb >> 8) & 0xff, rgb & 0xff);
+        }
+    }
+
+    public static LEDAnimation solid(int start, int end, Color color) {
+        LEDAnimation animation = new LEDAnimation(start, end - start, kFrameSecs);
+        for (int i = start; i < end; i++) {
+            animation.set(0, i, pack(color));
+        }
+        return animation;
+    }
+
+    /** Flashes the color, transparent for the off half of each period. */
+    public static LEDAnimation strobe(int start, int end, Color color, double duration) {
+        LEDAnimation animation = new LEDAnimation(start, end - start, duration);
+        for (int frame = 0; frame < animation.m_frameCount; frame++) {
+            int rgb = animation.phase(frame) > 0.5 ? pack(color) : kTransparent;
+            for (int i = start; i < end; i++) {
+                animation.set(frame, i, rgb);
+            }
+        }
+        return animation;
+    }
+
+    public static LEDAnimation breath(int start, int end, Color c1, Color c2, double duration) {
+        LEDAnimation animation = new LEDAnimation(start, end - start, duration);
+        for (int frame = 0; frame < animation.m_frameCount; frame++) {
+            double x = animation.phase(frame) * 2.0 * Math.PI;
+            int rgb = blend(c1, c2, (Math.sin(x) + 1.0) / 2.0);
+            for (int i = start; i < end; i++) {
+                animation.set(frame, i, rgb);
+            }
+        }
+        return animation;
+    }
+
+    public static LEDAnimation wave(int start, int end, Color c1, Color c2, double cycleLength,
+            double duration) {
+        LEDAnimation animation = new LEDAnimation(start, end - start, duration);
+        double xDiffPerLed = (2.0 * Math.PI) / cycleLength;
+        for (int frame = 0; frame < animation.m_frameCount; frame++) {
+            double x = (1 - animation.phase(frame)) * 2.0 * Math.PI;
+            for (int i = 0; i < end; i++) {
+                x += xDiffPerLed;
+                if (i >= start) {
+                    double ratio = (Math.pow(Math.sin(x), waveExponent) + 1.0) / 2.0;
+                    if (Double.isNaN(ratio)) {
+                        ratio = (-Math.pow(Math.sin(x + Math.PI), waveExponent) + 1.0) / 2.0;
+                    }
+                    if (Double.isNaN(ratio)) {
+                        ratio = 0.5;
+                    }
+                    animation.set(frame, i, blend(c1, c2, ratio));
+                }
+            }
+        }
+        return animation;
+    }
+
+    public static LEDAnimation stripes(int start, int end, List<Color> colors, int length,
+            double duration) {
+        LEDAnimation animation = new LEDAnimation(start, end - start, duration);
+        for (int frame = 0; frame < animation.m_frameCount; frame++) {
+            int offset = (int) (animation.phase(frame) * length * colors.size());
+            for (int i = start; i < end; i++) {
+                int colorIndex = (int) (Math.floor((double) (i - offset) / length) + colors.size())
+                        % colors.size();
+                colorIndex = colors.size() - 1 - colorIndex;
+                animation.set(frame, i, pack(colors.get(colorIndex)));
+            }
+        }
+        return animation;
+    }
+
+    /** @return The color as 0xRRGGBB, rounded the way AddressableLEDBuffer.setLED rounds. */
+    public static int pack(Color color) {
+        return ((int) (color.red * 255) << 16) | ((int) (color.green * 255) << 8)
+                | (int) (color.blue * 255);
+    }
+
+    private static int blend(Color c1, Color c2, double ratio) {
+        return pack(new Color(
+                (c1.red * (1 - ratio)) + (c2.red * ratio),
+                (c1.green * (1 - ratio)) + (c2.green * ratio),
+                (c1.blue * (1 - ratio)) + (c2.blue * ratio)));
+    }
+}
@@ -0,0 +1,105 @@
+package frc.robot.subsystems.leds;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import edu.wpi.first.wpilibj.AddressableLEDBuffer;
+
+/**
+ * Stacks animations as prioritized layers over the strip and blends them into the buffer. Each
+ * layer has an alpha and an optional time budget, after which it hides until it is shown again.
+ * Every frame is one pass over the pixels, blending each layer's precomputed color in priority
+ * order with integer math, so layers in different sections render side by side at no extra cost.
+ */
+public class LEDCompositor {
+    private final int m_length;
+    private final List<Layer> m_layerList = new ArrayList<>();
+    private Layer[] m_layers = new Layer[0];
+    // Frame offset of each layer for the frame being drawn, -1 for hidden layers
+    private int[] m_frameOffsets = new int[0];
+
+    public LEDCompositor(int length) {
+        m_length = length;
+    }
+
+    /**
+     * @param priority Higher priorities draw over lower ones.
+     * @param alpha How much the layer covers the layers below it, from 0 to 1.
+     * @param budgetSecs How long the layer shows after being shown, 0 for no limit.
+     */
+    public Layer addLayer(int priority, double alpha, double budgetSecs) {
+        Layer layer = new Layer(priority, alpha, budgetSecs);
+        m_layerList.add(layer);
+        m_layerList.sort(Comparator.comparingInt(l -> l.m_priority));
+        m_layers = m_layerList.toArray(new Layer[0]);
+        m_frameOffsets = new int[m_layers.length];
+        return layer;
+    }
+
+    /** Blends every visible layer for this timestamp into the buffer. */
+    public void render(double timestamp, AddressableLEDBuffer buffer) {
+        for (int l = 0; l < m_layers.length; l++) {
+            Layer layer = m_layers[l];
+            m_frameOffsets[l] = layer.isVisible(timestamp)
+                    ? layer.m_animation.getFrameOffset(timestamp)
+                    : -1;
+        }
+
+        for (int i = 0; i < m_length; i++) {
+            int red = 0;
+            int green = 0;
+            int blue = 0;
+            for (int l = 0; l < m_layers.length; l++) {
+                if (m_frameOffsets[l] < 0) {
+                    continue;
+                }
+                int rgb = m_layers[l].m_animation.getPixel(m_frameOffsets[l], i);
+                if (rgb == LEDAnimation.kTransparent) {
+                    continue;
+                }
+                int alpha = m_layers[l].m_alpha;
+                red += ((((rgb >> 16) & 0xff) - red) * alpha) >> 8;
+                green += ((((rgb >> 8) & 0xff) - green) * alpha) >> 8;
+                blue += (((rgb & 0xff) - blue) * alpha) >> 8;
+            }
+            buffer.setRGB(i, red, green, blue);
+        }
+    }
+
+    public static class Layer {
+        private final int m_priority;
+        // Alpha scaled to 0 to 256 for integer blending
+        private final int m_alpha;
+        private final double m_budgetSecs;
+
+        private LEDAnimation m_animation = null;
+        private double m_shownTimestamp = 0.0;
+
+        private Layer(int priority, double alpha, double budgetSecs) {
+            m_priority = priority;
+            m_alpha = (int) Math.round(Math.max(0.0, Math.min(1.0, alpha)) * 256.0);
+            m_budgetSecs = budgetSecs;
+        }
+
+        /**
+         * Shows the animation on this layer, or hides the layer if null. The time budget restarts
+         * when a hidden layer is shown.
+         */
+        public void show(LEDAnimation animation, double timestamp) {
+            if (m_animation == null && animation != null) {
+                m_shownTimestamp = timestamp;
+            }
+            m_animation = animation;
+        }
+
+        public void hide() {
+            m_animation = null;
+        }
+
+        private boolean isVisible(double timestamp) {
+            return m_animation != null
+                    && (m_budgetSecs <= 0.0 || timestamp - m_shownTimestamp < m_budgetSecs);
+        }
+    }
+}
@@ -11,7 +11,6 @@ import edu.wpi.first.wpilibj.AddressableLED;
 import edu.wpi.first.wpilibj.AddressableLEDBuffer;
 import edu.wpi.first.wpilibj.DriverStation;
 import edu.wpi.first.wpilibj.DriverStation.Alliance;
-import edu.wpi.first.wpilibj.Notifier;
 import edu.wpi.first.wpilibj.Timer;
 import edu.wpi.first.wpilibj.util.Color;
 import frc.lib.team6328.VirtualSubsystem;
@@ -19,6 +18,7 @@ import frc.robot.Constants;
 import frc.robot.subsystems.superstructure.ObjectiveTracker;
 import frc.robot.subsystems.superstructure.ObjectiveTracker.GamePiece;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
 
 
 public class LEDs extends VirtualSubsystem {
@@ -32,50 +32,106 @@ public class LEDs extends VirtualSubsystem {
         return instance;
     }
 
-    // Robot state tracking
-    public int loopCycleCount = 0;
-    public HPGamePiece hpGamePiece = HPGamePiece.NONE;
-    public boolean endgameAlert = false;
-    public boolean lowBatteryAlert = false;
-    public boolean intakeCaught = false;
+    // Robot state tracking, only touched by the main loop
+    private int loopCycleCount = 0;
+    private HPGamePiece hpGamePiece = HPGamePiece.NONE;
+    private boolean endgameAlert = false;
+    private boolean lowBatteryAlert = false;
+    private boolean intakeCaught = false;
     private Alliance alliance = Alliance.Invalid;
 
-    // LED IO
+    // Latest state published by the main loop for the render thread
+    private final AtomicReference<State> publishedState = new AtomicReference<>(State.kLoading);
+
+    // LED IO, only touched by the render thread. Rendered into the back buffer and swapped after
+    // each send
     private final AddressableLED leds;
-    private final AddressableLEDBuffer buffer;
-    private final Notifier loadingNotifier;
+    private final AddressableLEDBuffer[] buffers;
+    private int backBuffer = 0;
+    private final Thread renderThread;
 
     // Constants
     private static final int minLoopCycleCount = 10;
     private static final int length = 36;
+    private static final double renderPeriodSecs = 0.02;
     private static final double strobeSlowDuration = 0.2;
     private static final double breathDuration = 1.0;
-    private static final double waveExponent = 0.4;
     private static final double waveFastCycleLength = 25.0;
     private static final double waveFastDuration = 0.25;
     private static final double waveSlowDuration = 3.0;
     private static final double waveAllianceCycleLength = 15.0;
     private static final double waveAllianceDuration = 2.0;
+    private static final double intakeBudgetSecs = 1.0;
+    private static final double endgameBudgetSecs = 2.0;
+
+    // Every pattern the robot shows, precomputed once
+    private final LEDAnimation loading = breath(Section.FULL, Color.kWhite, Color.kBlack);
+    private final LEDAnimation lowBattery = solid(Section.LOWER, Color.kOrangeRed);
+    private final LEDAnimation redAlliance = LEDAnimation.wave(Section.FULL.start(),
+            Section.FULL.end(), Color.kRed, Color.kBlack, waveAllianceCycleLength,
+            waveAllianceDuration);
+    private final LEDAnimation blueAlliance = LEDAnimation.wave(Section.FULL.start(),
+            Section.FULL.end(), Color.kBlue, Color.kBlack, waveAllianceCycleLength,
+            waveAllianceDuration);
+    private final LEDAnimation noAlliance = LEDAnimation.stripes(Section.FULL.start(),
+            Section.FULL.end(), List.of(Color.kDarkBlue, Color.kWhite, Color.kRed), 4,
+            waveSlowDuration);
+    private final LEDAnimation autonomous = LEDAnimation.wave(Section.FULL.start(),
+            Section.FULL.end(), Color.kGold, Color.kDarkBlue, waveFastCycleLength,
+            waveFastDuration);
+    private final LEDAnimation redTeleop = solid(Section.LOWER, Color.kRed);
+    private final LEDAnimation blueTeleop = solid(Section.LOWER, Color.kBlue);
+    private final LEDAnimation cubeRequest = breath(Section.UPPER, Color.kPurple, Color.kBlack);
+    private final LEDAnimation coneRequest = breath(Section.UPPER, Color.kGold, Color.kBlack);
+    private final LEDAnimation endgame = LEDAnimation.strobe(Section.FULL.start(),
+            Section.FULL.end(), Color.kBlue, strobeSlowDuration);
+    private final LEDAnimation caught = solid(Section.FULL, Color.kGreen);
+
+    // Layers from bottom to top, only touched by the render thread
+    private final LEDCompositor compositor = new LEDCompositor(length);
+    private final LEDCompositor.Layer modeLayer = compositor.addLayer(0, 1.0, 0.0);
+    private final LEDCompositor.Layer gamePieceLayer = compositor.addLayer(1, 1.0, 0.0);
+    private final LEDCompositor.Layer batteryLayer = compositor.addLayer(2, 1.0, 0.0);
+    private final LEDCompositor.Layer intakeLayer = compositor.addLayer(3, 0.8, intakeBudgetSecs);
+    private final LEDCompositor.Layer endgameLayer = compositor.addLayer(4, 1.0, endgameBudgetSecs);
 
     private LEDs() {
         System.out.println("[Init] Creating LEDs");
         leds = new AddressableLED(Constants.RobotMap.kLedsDIO);
 
-        buffer = new AddressableLEDBuffer(length);
+        buffers = new AddressableLEDBuffer[] {
+                new AddressableLEDBuffer(length), new AddressableLEDBuffer(length) };
         leds.setLength(length);
-        leds.setData(buffer);
+        leds.setData(buffers[backBuffer]);
         leds.start();
-        loadingNotifier = new Notifier(() -> {
-            synchronized (this) {
-                breath(Section.FULL, Color.kWhite, Color.kBlack, 0.5,
-                        System.currentTimeMillis() / 1000.0);
-                leds.setData(buffer);
+
+        // Renders from the published state, starting with the loading pattern while robot code
+        // starts up
+        renderThread = new Thread(() -> {
+            while (!Thread.currentThread().isInterrupted()) {
+                render(publishedState.get());
+                Timer.delay(renderPeriodSecs);
             }
-        });
-        loadingNotifier.startPeriodic(0.02);
+        }, "LEDs");
+        renderThread.setDaemon(true);
+        renderThread.setPriority(Thread.MIN_PRIORITY);
+        renderThread.start();
+    }
+
+    public void setEndgameAlert(boolean active) {
+        endgameAlert = active;
+    }
+
+    public void setLowBatteryAlert(boolean active) {
+        lowBatteryAlert = active;
+    }
+
+    public void setIntakeCaught(boolean active) {
+        intakeCaught = active;
     }
 
-    public synchronized void periodic() {
+    /** Publishes the robot state for the render thread, allocating only when it changed. */
+    public void periodic() {
         // Update alliance color
         if (DriverStation.isFMSAttached()) {
             alliance = DriverStation.getAlliance();
@@ -94,119 +150,104 @@ public class LEDs extends VirtualSubsystem {
             return;
         }
 
-        // Stop loading notifier if running
-        loadingNotifier.stop();
-
-        // Default to off
-        solid(Section.FULL, Color.kBlack);
-
-        if (DriverStation.isDisabled()) {
-            if (lowBatteryAlert) {
-                // Low battery
-                solid(Section.FULL, Color.kOrangeRed);
-            } else {
-                // Default pattern
-                switch (alliance) {
-                    case Red:
-                        wave(Section.FULL, Color.kRed, Color.kBlack, waveAllianceCycleLength,
-                                waveAllianceDuration);
-                        break;
-                    case Blue:
-                        wave(Section.FULL, Color.kBlue, Color.kBlack, waveAllianceCycleLength,
-                                waveAllianceDuration);
-                        break;
-                    default:
-                        stripes(Section.FULL, List.of(Color.kDarkBlue, Color.kWhite, Color.kRed), 4,
-                                waveSlowDuration);
-                        break;
-                }
-            }
-        } else if (DriverStation.isAutonomous()) {
-            wave(Section.FULL, Color.kGold, Color.kDarkBlue, waveFastCycleLength, waveFastDuration);
+        State state = publishedState.get();
+        boolean disabled = DriverStation.isDisabled();
+        boolean autonomous = DriverStation.isAutonomous();
+        if (state.loading || state.hpGamePiece != hpGamePiece || state.endgameAlert != endgameAlert
+                || state.lowBatteryAlert != lowBatteryAlert || state.intakeCaught != intakeCaught
+                || state.alliance != alliance || state.disabled != disabled
+                || state.autonomous != autonomous) {
+            publishedState.set(new State(false, hpGamePiece, endgameAlert, lowBatteryAlert,
+                    intakeCaught, alliance, disabled, autonomous));
+        }
+    }
+
+    /** Draws one frame of the state on the render thread. */
+    private void render(State state) {
+        if (state.loading) {
+            loading.render(System.currentTimeMillis() / 1000.0, buffers[backBuffer]);
+            leds.setData(buffers[backBuffer]);
+            backBuffer ^= 1;
+            return;
+        }
+
+        double timestamp = Timer.getFPGATimestamp();
+
+        // Robot mode and alliance underneath everything
+        LEDAnimation mode;
+        if (state.disabled) {
+            mode = state.alliance == Alliance.Red ? redAlliance
+                    : state.alliance == Alliance.Blue ? blueAlliance : noAlliance;
+        } else if (state.autonomous) {
+            mode = autonomous;
         } else {
-            // Set HP indicator
-            Color hpColor = null;
-            switch (hpGamePiece) {
+            mode = state.alliance == Alliance.Red ? redTeleop
+                    : state.alliance == Alliance.Blue ? blueTeleop : null;
+        }
+        modeLayer.show(mode, timestamp);
+
+        // Human player request in teleop
+        LEDAnimation gamePiece = null;
+        if (!state.disabled && !state.autonomous) {
+            switch (state.hpGamePiece) {
                 case CUBE:
-                    hpColor = Color.kPurple;
+                    gamePiece = cubeRequest;
                     break;
                 case CONE:
-                    hpColor = Color.kGold;
+                    gamePiece = coneRequest;
                     break;
                 case NONE:
                     break;
                 default:
                     break;
             }
-            breath(Section.FULL, hpColor, Color.kBlack, 1.0);
         }
+        gamePieceLayer.show(gamePiece, timestamp);
 
-        // Set special modes
-        if (endgameAlert) {
-            strobe(Section.FULL, Color.kBlue, strobeSlowDuration);
-        } else if (intakeCaught) {
-            solid(Section.FULL, Color.kGreen);
-        }
+        // Alerts over the rest
+        batteryLayer.show(state.disabled && state.lowBatteryAlert ? lowBattery : null, timestamp);
+        intakeLayer.show(state.intakeCaught ? caught : null, timestamp);
+        endgameLayer.show(state.endgameAlert ? endgame : null, timestamp);
 
         // Update LEDs
-        leds.setData(buffer);
+        compositor.render(timestamp, buffers[backBuffer]);
+        leds.setData(buffers[backBuffer]);
+        backBuffer ^= 1;
     }
 
-    private void solid(Section section, Color color) {
-        if (color != null) {
-            for (int i = section.start(); i < section.end(); i++) {
-                buffer.setLED(i, color);
-            }
-        }
+    private static LEDAnimation solid(Section section, Color color) {
+        return LEDAnimation.solid(section.start(), section.end(), color);
     }
 
-    private void strobe(Section section, Color color, double duration) {
-        boolean on = ((Timer.getFPGATimestamp() % duration) / duration) > 0.5;
-        solid(section, on ? color : Color.kBlack);
+    private static LEDAnimation breath(Section section, Color c1, Color c2) {
+        return LEDAnimation.breath(section.start(), section.end(), c1, c2, breathDuration);
     }
 
-    private void breath(Section section, Color c1, Color c2, double duration) {
-        breath(section, c1, c2, duration, Timer.getFPGATimestamp());
-    }
-
-    private void breath(Section section, Color c1, Color c2, double duration, double timestamp) {
-        double x = ((timestamp % breathDuration) / breathDuration) * 2.0 * Math.PI;
-        double ratio = (Math.sin(x) + 1.0) / 2.0;
-        double red = (c1.red * (1 - ratio)) + (c2.red * ratio);
-        double green = (c1.green * (1 - ratio)) + (c2.green * ratio);
-        double blue = (c1.blue * (1 - ratio)) + (c2.blue * ratio);
-        solid(section, new Color(red, green, blue));
-    }
+    /** An immutable copy of everything the patterns depend on. */
+    private static final class State {
+        static final State kLoading = new State(true, HPGamePiece.NONE, false, false, false,
+                Alliance.Invalid, true, false);
 
-    private void wave(Section section, Color c1, Color c2, double cycleLength, double duration) {
-        double x = (1 - ((Timer.getFPGATimestamp() % duration) / duration)) * 2.0 * Math.PI;
-        double xDiffPerLed = (2.0 * Math.PI) / cycleLength;
-        for (int i = 0; i < section.end(); i++) {
-            x += xDiffPerLed;
-            if (i >= section.start()) {
-                double ratio = (Math.pow(Math.sin(x), waveExponent) + 1.0) / 2.0;
-                if (Double.isNaN(ratio)) {
-                    ratio = (-Math.pow(Math.sin(x + Math.PI), waveExponent) + 1.0) / 2.0;
-                }
-                if (Double.isNaN(ratio)) {
-                    ratio = 0.5;
-                }
-                double red = (c1.red * (1 - ratio)) + (c2.red * ratio);
-                double green = (c1.green * (1 - ratio)) + (c2.green * ratio);
-                double blue = (c1.blue * (1 - ratio)) + (c2.blue * ratio);
-                buffer.setLED(i, new Color(red, green, blue));
-            }
-        }
-    }
+        final boolean loading;
+        final HPGamePiece hpGamePiece;
+        final boolean endgameAlert;
+        final boolean lowBatteryAlert;
+        final boolean intakeCaught;
+        final Alliance alliance;
+        final boolean disabled;
+        final boolean autonomous;
 
-    private void stripes(Section section, List<Color> colors, int length, double duration) {
-        int offset =
-                (int) (Timer.getFPGATimestamp() % duration / duration * length * colors.size());
-        for (int i = section.start(); i < section.end(); i++) {
-            int colorIndex = (int) (Math.floor((double) (i - offset) / length) + colors.size())
-                    % colors.size();
-            colorIndex = colors.size() - 1 - colorIndex;
-            buffer.setLED(i, colors.get(colorIndex));
+        State(boolean loading, HPGamePiece hpGamePiece, boolean endgameAlert,
+                boolean lowBatteryAlert, boolean intakeCaught, Alliance alliance, boolean disabled,
+                boolean autonomous) {
+            this.loading = loading;
+            this.hpGamePiece = hpGamePiece;
+            this.endgameAlert = endgameAlert;
+            this.lowBatteryAlert = lowBatteryAlert;
+            this.intakeCaught = intakeCaught;
+            this.alliance = alliance;
+            this.disabled = disabled;
+            this.autonomous = autonomous;
         }
     }
 
@@ -215,24 +256,24 @@ public class LEDs extends VirtualSubsystem {
     }
 
     private static enum Section {
-        FULL;
+        FULL(0, length),
+        LOWER(0, length / 2),
+        UPPER(length / 2, length);
+
+        private final int start;
+        private final int end;
+
+        private Section(int start, int end) {
+            this.start = start;
+            this.end = end;
+        }
 
         private int start() {
-            switch (this) {
-                case FULL:
-                    return 0;
-                default:
-                    return 0;
-            }
+            return start;
         }
 
         private int end() {
-            switch (this) {
-                case FULL:
-                    return length;
-                default:
-                    return length;
-            }
+            return end;
         }
     }
 }
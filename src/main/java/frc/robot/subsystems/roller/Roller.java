@@ -11,6 +11,7 @@ import edu.wpi.first.wpilibj2.command.InstantCommand;
 import edu.wpi.first.wpilibj2.command.SubsystemBase;
 import edu.wpi.first.wpilibj2.command.WaitCommand;
 import edu.wpi.first.wpilibj2.command.WaitUntilCommand;
+import frc.lib.team5557.util.LoopTimer;
 import frc.lib.team6328.TunableNumber;
 import frc.robot.subsystems.roller.RollerIO.RollerIOInputs;
 import frc.robot.util.Util;
@@ -19,6 +20,7 @@ public class Roller extends SubsystemBase {
 
     private final RollerIO m_io;
     private final RollerIOInputs m_inputs = new RollerIOInputs();
+    private final LoopTimer.Section m_loopTiming = LoopTimer.getSection("Subsystems/Roller");
 
     private State currentState = State.DO_NOTHING;
 
@@ -47,12 +49,15 @@ public class Roller extends SubsystemBase {
 
     @Override
     public void periodic() {
+        m_loopTiming.start();
         m_io.updateInputs(m_inputs);
         m_io.setRollerVoltage(this.currentState.getMotorVoltage());
 
         Logger.getInstance().processInputs("Roller", m_inputs);
         Logger.getInstance().recordOutput("CurrentState", currentState.toString());
         Logger.getInstance().recordOutput("isStalled", isStalled());
+
+        m_loopTiming.stop();
     }
 
     public void setRollerState(State desState) {
@@ -2,6 +2,7 @@ package frc.robot.subsystems.roller;
 
 import com.revrobotics.CANSparkMax.IdleMode;
 
+import frc.lib.team5557.factory.SparkMaxFactory.FrameProfile;
 import frc.lib.team5557.factory.SparkMaxFactory.SparkMaxConfiguration;
 import frc.lib.team5557.util.CANDeviceId;
 import frc.lib.team5557.util.CANDeviceId.CANDeviceType;
@@ -19,5 +20,9 @@ public class RollerConstants {
         kRollerMotorConfiguration.kShouldInvert = false;
         kRollerMotorConfiguration.kVoltageCompensation = 12.0;
         kRollerMotorConfiguration.kIdleMode = IdleMode.kBrake;
+
+        // Only velocity and current are read
+        kRollerMotorConfiguration.frames = FrameProfile.nonLeader()
+                .withPositionPeriod(FrameProfile.kDisabled);
     }
 }
@@ -0,0 +1,29 @@
+package frc.robot.subsystems.roller;
+
+import edu.wpi.first.math.MathUtil;
+import edu.wpi.first.math.system.plant.DCMotor;
+import edu.wpi.first.wpilibj.simulation.FlywheelSim;
+import frc.robot.Robot;
+
+public class RollerIOSim implements RollerIO {
+    private final FlywheelSim m_sim = new FlywheelSim(DCMotor.getNEO(1), 3.0, 0.001);
+    private double m_appliedVolts = 0.0;
+
+    public RollerIOSim() {
+        System.out.println("[Init] Creating RollerIOSim");
+    }
+
+    public void updateInputs(RollerIOInputs inputs) {
+        m_sim.update(Robot.defaultPeriodSecs);
+
+        inputs.rollerVelocityRPM = m_sim.getAngularVelocityRPM();
+        inputs.rollerAppliedVolts = m_appliedVolts;
+        inputs.rollerCurrentAmps = new double[] { Math.abs(m_sim.getCurrentDrawAmps()) };
+        inputs.rollerTempCelcius = new double[] {};
+    }
+
+    public void setRollerVoltage(double volts) {
+        m_appliedVolts = MathUtil.clamp(volts, -12.0, 12.0);
+        m_sim.setInputVoltage(m_appliedVolts);
+    }
+}
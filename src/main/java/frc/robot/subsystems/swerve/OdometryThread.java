@@ -0,0 +1,159 @@
+package frc.robot.subsystems.swerve;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.DoubleSupplier;
+
+import org.littletonrobotics.junction.Logger;
+
+import edu.wpi.first.math.MathUtil;
+import edu.wpi.first.wpilibj.Notifier;
+import frc.robot.util.DoubleRecordQueue;
+
+/**
+ * Samples registered signals faster than the main loop. IO implementations register the signals
+ * they want sampled and drain them in updateInputs. Each tick writes one record holding the
+ * timestamp and every registered signal into a single queue, so the ticks carry one sequence number
+ * for all sources. {@link #snapshot()} drains that queue and splits it by source, so sample k of one
+ * source was taken with sample k of every other without the threads sharing a lock.
+ */
+public class OdometryThread {
+    public static final double kMinFrequencyHz = 100.0;
+    public static final double kMaxFrequencyHz = 250.0;
+
+    // Room for several main loops worth of samples in case of an overrun
+    private static final int kQueueCapacity = 64;
+
+    private static OdometryThread m_instance = null;
+
+    public static OdometryThread getInstance() {
+        if (m_instance == null) {
+            m_instance = new OdometryThread(SwerveConstants.kOdometryFrequencyHz);
+        }
+        return m_instance;
+    }
+
+    private final List<SampledSignals> m_sources = new ArrayList<>();
+    private final Notifier m_notifier;
+    private final double m_periodSecs;
+    private boolean m_started = false;
+
+    // Built by start() from the registered sources, then only read by the odometry thread
+    private DoubleSupplier[] m_signals = new DoubleSupplier[0];
+    private double[] m_record = new double[1];
+    private DoubleRecordQueue m_queue = null;
+
+    private OdometryThread(double frequencyHz) {
+        System.out.println("[Init] Creating OdometryThread");
+        m_periodSecs = 1.0 / MathUtil.clamp(frequencyHz, kMinFrequencyHz, kMaxFrequencyHz);
+
+        m_notifier = new Notifier(this::sample);
+        m_notifier.setName("OdometryThread");
+    }
+
+    /**
+     * Registers signals to be sampled together. The suppliers are called from the odometry thread.
+     * Every source has to register before {@link #start()}, since that fixes the record layout.
+     *
+     * @return The signals, drained once per loop after {@link #snapshot()}.
+     */
+    public SampledSignals registerSignals(DoubleSupplier... signals) {
+        if (m_started) {
+            throw new IllegalStateException("[OdometryThread] Signals registered after start");
+        }
+        int column = 1;
+        for (int i = 0; i < m_sources.size(); i++) {
+            column += m_sources.get(i).signalCount;
+        }
+        SampledSignals source = new SampledSignals(signals, column);
+        m_sources.add(source);
+        return source;
+    }
+
+    /**
+     * Moves the ticks sampled since the last snapshot out of the queue and splits them between the
+     * sources. Call once per loop before any IO drains its signals.
+     */
+    public void snapshot() {
+        if (m_queue == null) {
+            return;
+        }
+        double[][] columns = m_queue.drainColumns();
+        for (int i = 0; i < m_sources.size(); i++) {
+            m_sources.get(i).snapshot(columns);
+        }
+    }
+
+    public void start() {
+        if (m_started) {
+            return;
+        }
+        List<DoubleSupplier> signals = new ArrayList<>();
+        for (int i = 0; i < m_sources.size(); i++) {
+            for (DoubleSupplier signal : m_sources.get(i).signals) {
+                signals.add(signal);
+            }
+        }
+        m_signals = signals.toArray(new DoubleSupplier[0]);
+        m_record = new double[m_signals.length + 1];
+        m_queue = new DoubleRecordQueue(kQueueCapacity, m_signals.length + 1);
+        m_started = true;
+        // The notifier hands its callback over under a lock, so the thread sees the fields above
+        m_notifier.startPeriodic(m_periodSecs);
+    }
+
+    public double getPeriodSecs() {
+        return m_periodSecs;
+    }
+
+    /** @return The number of ticks dropped because the queue was not drained in time. */
+    public long getDroppedCount() {
+        return m_queue == null ? 0 : m_queue.getDroppedCount();
+    }
+
+    private void sample() {
+        m_record[0] = Logger.getInstance().getRealTimestamp() * 1.0e-6;
+        for (int i = 0; i < m_signals.length; i++) {
+            m_record[i + 1] = m_signals[i].getAsDouble();
+        }
+        m_queue.offer(m_record);
+    }
+
+    public static class SampledSignals {
+        private final DoubleSupplier[] signals;
+        private final int signalCount;
+        // Column of the first signal in the shared record
+        private final int column;
+        private final double[][] empty;
+        // Ticks from the last snapshot, only touched by the main thread
+        private double[][] samples;
+
+        private SampledSignals(DoubleSupplier[] signals, int column) {
+            this.signals = signals;
+            this.signalCount = signals.length;
+            this.column = column;
+            empty = new double[signals.length + 1][0];
+            samples = empty;
+        }
+
+        /**
+         * Hands over the ticks from the last snapshot, so columns[f][r] is field f of tick r and
+         * field 0 is the timestamp. Returns no ticks until the next snapshot.
+         */
+        public double[][] drainColumns() {
+            double[][] columns = samples;
+            samples = empty;
+            return columns;
+        }
+
+        private void snapshot(double[][] columns) {
+            double[][] own = new double[signalCount + 1][];
+            // Every source gets its own timestamps, since callers may convert columns in place
+            own[0] = columns[0].clone();
+            for (int i = 0; i < signalCount; i++) {
+                own[i + 1] = columns[column + i];
+            }
+            samples = own;
+        }
+    }
+}
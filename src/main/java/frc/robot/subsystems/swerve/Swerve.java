@@ -18,6 +18,8 @@ import edu.wpi.first.wpilibj.shuffleboard.BuiltInWidgets;
 import edu.wpi.first.wpilibj.shuffleboard.Shuffleboard;
 import edu.wpi.first.wpilibj.shuffleboard.ShuffleboardTab;
 import edu.wpi.first.wpilibj2.command.SubsystemBase;
+import frc.lib.team5557.util.LoopTimer;
+import frc.robot.Constants;
 import frc.robot.Robot;
 import frc.robot.auto.SystemsCheckManager.SwerveModuleSystemCheckRequest;
 import frc.robot.subsystems.swerve.gyro.GyroIO;
@@ -34,6 +36,7 @@ import frc.robot.util.SwerveSetpointGenerator.KinematicLimits;
 public class Swerve extends SubsystemBase {
     private final GyroIO m_gyroIO;
     private final GyroIOInputs m_gyroInputs = new GyroIOInputs();
+    private final LoopTimer.Section m_loopTiming = LoopTimer.getSection("Subsystems/" + kSubsystemName);
 
     private final Module[] m_modules = new Module[4]; // FL, FR, BL, BR
 
@@ -43,10 +46,11 @@ public class Swerve extends SubsystemBase {
     private ControlMode m_mode = ControlMode.VELOCITY;
     private KinematicLimits m_kinematicLimits = kUncappedLimits;
     private ChassisSpeeds m_desChassisSpeeds = new ChassisSpeeds();
-    private SwerveSetpoint m_swerveSetpoint = new SwerveSetpoint(m_desChassisSpeeds,
+    private SwerveSetpoint m_swerveSetpoint = new SwerveSetpoint(new ChassisSpeeds(),
             new SwerveModuleState[] { new SwerveModuleState(),
                     new SwerveModuleState(), new SwerveModuleState(), new SwerveModuleState() });
     private Twist2d m_fieldVelocity = new Twist2d();
+    private ChassisSpeeds m_measuredChassisSpeeds = new ChassisSpeeds();
     private int m_systemCheckModuleNumber = 0;
     private SwerveModuleSystemCheckRequest m_systemCheckState = SwerveModuleSystemCheckRequest.DO_NOTHING;
     private double m_characterizationVolts = 0.0;
@@ -66,6 +70,11 @@ public class Swerve extends SubsystemBase {
         m_modules[2] = new Module(blModuleIO, 2);
         m_modules[3] = new Module(brModuleIO, 3);
 
+        // Only real hardware registers signals with the odometry thread
+        if (Constants.kIsReal) {
+            OdometryThread.getInstance().start();
+        }
+
         ShuffleboardTab shuffleboardTab = Shuffleboard.getTab("Swerve");
         shuffleboardTab.addNumber("Heading", () -> Util.truncate(getYaw().getDegrees(), 2))
                 .withWidget(BuiltInWidgets.kGraph);
@@ -82,6 +91,11 @@ public class Swerve extends SubsystemBase {
 
     @Override
     public void periodic() {
+        m_loopTiming.start();
+        if (Constants.kIsReal) {
+            // Every IO below drains the same odometry ticks
+            OdometryThread.getInstance().snapshot();
+        }
         m_gyroIO.updateInputs(m_gyroInputs);
         Logger.getInstance().processInputs(kSubsystemName + "/Gyro", m_gyroInputs);
         for (var module : m_modules) {
@@ -139,17 +153,12 @@ public class Swerve extends SubsystemBase {
                     new double[] {});
         } else {
             // Calculate module setpoints
-            var setpointTwist = new Pose2d().log(new Pose2d(
-                    m_desChassisSpeeds.vxMetersPerSecond * Robot.defaultPeriodSecs,
-                    m_desChassisSpeeds.vyMetersPerSecond * Robot.defaultPeriodSecs, new Rotation2d(
-                            m_desChassisSpeeds.omegaRadiansPerSecond * Robot.defaultPeriodSecs * 4)));
+            var adjustedSpeeds = correctForTwist(m_desChassisSpeeds, Robot.defaultPeriodSecs);
 
-            var adjustedSpeeds = new ChassisSpeeds(setpointTwist.dx / Robot.defaultPeriodSecs,
-                    setpointTwist.dy / Robot.defaultPeriodSecs,
-                    m_desChassisSpeeds.omegaRadiansPerSecond);
-
-            m_swerveSetpoint = m_setpointGenerator.generateSetpoint(m_kinematicLimits,
-                    m_swerveSetpoint, adjustedSpeeds, Robot.defaultPeriodSecs);
+            m_setpointGenerator.generateSetpoint(m_kinematicLimits, m_swerveSetpoint,
+                    adjustedSpeeds, Robot.defaultPeriodSecs, m_swerveSetpoint);
+            Logger.getInstance().recordOutput(kSubsystemName + "/SteeringRootIterations",
+                    m_setpointGenerator.getLastSteeringIterations());
 
             m_swerveSetpoint.moduleStates = m_kinematics.toSwerveModuleStates(adjustedSpeeds);
 
@@ -190,7 +199,9 @@ public class Swerve extends SubsystemBase {
         }
 
         // Update Pose Estimator
-        if (m_gyroInputs.connected) {
+        if (m_modules[0].getOdometrySampleCount() > 0) {
+            integrateOdometrySamples();
+        } else if (m_gyroInputs.connected) {
             RobotStateEstimator.getInstance().addDriveData(
                     getRawGyroYaw().orElse(getYaw()), measuredPositions);
         } else {
@@ -200,6 +211,7 @@ public class Swerve extends SubsystemBase {
 
         // Update field velocity
         ChassisSpeeds chassisSpeeds = m_kinematics.toChassisSpeeds(measuredStates);
+        m_measuredChassisSpeeds = chassisSpeeds;
         Translation2d linearFieldVelocity = new Translation2d(chassisSpeeds.vxMetersPerSecond,
                 chassisSpeeds.vyMetersPerSecond)
                 .rotateBy(getYaw());
@@ -218,6 +230,54 @@ public class Swerve extends SubsystemBase {
         Logger.getInstance().recordOutput(kSubsystemName + "/ControlMode", m_mode.toString());
         Logger.getInstance().recordOutput(kSubsystemName + "/KinematicLimits",
                 m_kinematicLimits.toString());
+
+        m_loopTiming.stop();
+    }
+
+    /**
+     * Feeds every sample taken by the odometry thread since the last loop to the estimator. The
+     * samples come from the logged inputs, so replay integrates exactly the same samples. The
+     * odometry thread snapshot gives the gyro and every module the same ticks, so sample k shares
+     * one timestamp across all of them.
+     */
+    private void integrateOdometrySamples() {
+        int sampleCount = m_modules[0].getOdometrySampleCount();
+        for (var module : m_modules) {
+            sampleCount = Math.min(sampleCount, module.getOdometrySampleCount());
+        }
+        boolean useGyro = m_gyroInputs.connected
+                && m_gyroInputs.odometryYawPositionsRad.length == sampleCount;
+
+        double[] timestamps = m_modules[0].getOdometryTimestamps();
+        for (int sample = 0; sample < sampleCount; sample++) {
+            SwerveModulePosition[] positions = new SwerveModulePosition[4];
+            for (int i = 0; i < 4; i++) {
+                positions[i] = m_modules[i].getOdometryPosition(sample);
+            }
+
+            if (useGyro) {
+                RobotStateEstimator.getInstance().addDriveData(timestamps[sample],
+                        Rotation2d.fromRadians(m_gyroInputs.odometryYawPositionsRad[sample]), positions);
+            } else {
+                RobotStateEstimator.getInstance().addDriveData(timestamps[sample], positions);
+            }
+        }
+        Logger.getInstance().recordOutput(kSubsystemName + "/Odometry/SampleCount", sampleCount);
+    }
+
+    /**
+     * Compensates the desired speeds for the skew picked up by translating while rotating over one
+     * loop, by taking the twist of the pose the robot would reach and dividing it back by dt.
+     */
+    public static ChassisSpeeds correctForTwist(ChassisSpeeds speeds, double dt) {
+        var setpointTwist = new Pose2d().log(new Pose2d(
+                speeds.vxMetersPerSecond * dt,
+                speeds.vyMetersPerSecond * dt, new Rotation2d(
+                        speeds.omegaRadiansPerSecond * dt * 4)));
+
+        return new ChassisSpeeds(setpointTwist.dx / dt,
+                setpointTwist.dy / dt,
+                speeds.omegaRadiansPerSecond);
     }
 
     public void drive(ChassisSpeeds desSpeed, ControlMode desMode) {
@@ -304,6 +364,11 @@ public class Swerve extends SubsystemBase {
         return m_fieldVelocity;
     }
 
+    /** Robot relative speeds from the measured module states, independent of the gyro. */
+    public ChassisSpeeds getMeasuredChassisSpeeds() {
+        return m_measuredChassisSpeeds;
+    }
+
     public KinematicLimits getKinematicLimit() {
         return m_kinematicLimits;
     }
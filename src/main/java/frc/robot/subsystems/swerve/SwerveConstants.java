@@ -6,6 +6,7 @@ import edu.wpi.first.math.geometry.Translation2d;
 import edu.wpi.first.math.kinematics.SwerveModuleState;
 import edu.wpi.first.math.util.Units;
 import frc.lib.team5557.factory.SparkMaxFactory.PIDConfiguration;
+import frc.lib.team5557.factory.SparkMaxFactory.FrameProfile;
 import frc.lib.team5557.factory.SparkMaxFactory.SparkMaxConfiguration;
 import frc.robot.util.SwerveSetpointGenerator.KinematicLimits;
 
@@ -24,6 +25,9 @@ public class SwerveConstants {
     public static final double kMaxAttainableAcceleration = kMaxAcceleration * 0.8;
 
 
+    // Rate of the odometry thread, clamped to 100-250 Hz
+    public static final double kOdometryFrequencyHz = 200.0;
+
     public static final boolean kCanCoderInverted = false;
     public static final int kAbsoluteResetIterations = 100;
     public static final double kAbsoluteResetMaxOmega = 4.0; //must rotate at less than a degree per second
@@ -105,6 +109,10 @@ public class SwerveConstants {
         kDriveMotorConfiguration.kVoltageCompensation = 12.0;
         kDriveMotorConfiguration.kSmartCurrentLimit = 50.0;
         kDriveMotorConfiguration.kIdleMode = IdleMode.kBrake;
+
+        // Drive position feeds odometry, keep it as fresh as the odometry thread samples
+        kDriveMotorConfiguration.frames = FrameProfile.leader()
+                .withPositionPeriod((int) (1000.0 / kOdometryFrequencyHz));
     }
 
     public static PIDConfiguration kAnglePIDConfiguration = new PIDConfiguration();
@@ -116,12 +124,19 @@ public class SwerveConstants {
 
     public static SparkMaxConfiguration kAngleMotorConfiguration = new SparkMaxConfiguration();
     static {
+        kAngleMotorConfiguration.label = "Swerve Angle Motor";
+
         kAngleMotorConfiguration.pid = kAnglePIDConfiguration;
 
         kAngleMotorConfiguration.kShouldInvert = true;
         kAngleMotorConfiguration.kVoltageCompensation = 12.0;
         kAngleMotorConfiguration.kSmartCurrentLimit = 20.0;
         kAngleMotorConfiguration.kIdleMode = IdleMode.kBrake;
+        // The PID runs on motor rotations, so one module turn is the gear reduction
+        kAngleMotorConfiguration.kPositionWrappingMin = 0.0;
+        kAngleMotorConfiguration.kPositionWrappingMax = kAngleGearReduction;
+
+        kAngleMotorConfiguration.frames = FrameProfile.leader();
     }
 
 
@@ -0,0 +1,112 @@
+package frc.robot.subsystems.swerve.commands;
+
+import org.littletonrobotics.junction.Logger;
+
+import edu.wpi.first.math.MathUtil;
+import edu.wpi.first.math.controller.PIDController;
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.kinematics.ChassisSpeeds;
+import edu.wpi.first.wpilibj.Timer;
+import edu.wpi.first.wpilibj2.command.CommandBase;
+import frc.robot.RobotContainer;
+import frc.robot.subsystems.swerve.Swerve;
+import frc.robot.util.DriveMotionPlanner;
+import frc.robot.util.IndexedTrajectory;
+import frc.robot.util.RobotStateEstimator;
+import frc.robot.util.SwerveSetpointGenerator.KinematicLimits;
+
+/**
+ * Follows a trajectory with the DriveMotionPlanner controllers, feeding the trajectory velocity
+ * forward and correcting position and heading with feedback. The reference is read from the
+ * trajectory's primitive columns and the output speeds object is reused, so a loop allocates
+ * nothing beyond the pose estimate. Tracking error is logged under "PathFollowing/".
+ */
+public class FollowTrajectory extends CommandBase {
+    private final Swerve swerve;
+    private final IndexedTrajectory m_trajectory;
+
+    private final PIDController m_forwardController = DriveMotionPlanner.getForwardController();
+    private final PIDController m_strafeController = DriveMotionPlanner.getStrafeController();
+    private final PIDController m_rotationController = DriveMotionPlanner.getRotationController();
+
+    private final Timer m_timer = new Timer();
+    private final ChassisSpeeds m_speeds = new ChassisSpeeds();
+    // Limits before drivePath switched to the path following ones, restored when the path ends
+    private KinematicLimits m_previousLimits = null;
+
+    public FollowTrajectory(IndexedTrajectory trajectory) {
+        this.swerve = RobotContainer.m_swerve;
+        this.m_trajectory = trajectory;
+
+        addRequirements(swerve);
+    }
+
+    @Override
+    public void initialize() {
+        m_forwardController.reset();
+        m_strafeController.reset();
+        m_rotationController.reset();
+        m_previousLimits = swerve.getKinematicLimit();
+        m_timer.restart();
+    }
+
+    @Override
+    public void execute() {
+        m_trajectory.seek(m_timer.get());
+        Pose2d pose = RobotStateEstimator.getInstance().getPose();
+        calculate(m_trajectory, pose, m_forwardController, m_strafeController,
+                m_rotationController, m_speeds);
+        swerve.drivePath(m_speeds);
+
+        double xError = m_trajectory.getX() - pose.getX();
+        double yError = m_trajectory.getY() - pose.getY();
+        Logger.getInstance().recordOutput("PathFollowing/XErrorMeters", xError);
+        Logger.getInstance().recordOutput("PathFollowing/YErrorMeters", yError);
+        Logger.getInstance().recordOutput("PathFollowing/TranslationErrorMeters",
+                Math.hypot(xError, yError));
+        Logger.getInstance().recordOutput("PathFollowing/RotationErrorRad", MathUtil.angleModulus(
+                m_trajectory.getHolonomicRotationRadians() - pose.getRotation().getRadians()));
+    }
+
+    /**
+     * Computes robot relative speeds that track the point the trajectory was last seeked to, and
+     * writes them into the given speeds.
+     */
+    public static void calculate(IndexedTrajectory trajectory, Pose2d pose,
+            PIDController forwardController, PIDController strafeController,
+            PIDController rotationController, ChassisSpeeds outSpeeds) {
+        double referenceHeading = trajectory.getHeadingRadians();
+        double referenceVelocity = trajectory.getVelocity();
+        double robotRotation = pose.getRotation().getRadians();
+
+        double fieldVx = referenceVelocity * Math.cos(referenceHeading)
+                + forwardController.calculate(pose.getX(), trajectory.getX());
+        double fieldVy = referenceVelocity * Math.sin(referenceHeading)
+                + strafeController.calculate(pose.getY(), trajectory.getY());
+        double omega = trajectory.getHolonomicAngularVelocity() + rotationController
+                .calculate(robotRotation, trajectory.getHolonomicRotationRadians());
+
+        // Field relative to robot relative
+        double cos = Math.cos(robotRotation);
+        double sin = Math.sin(robotRotation);
+        outSpeeds.vxMetersPerSecond = fieldVx * cos + fieldVy * sin;
+        outSpeeds.vyMetersPerSecond = -fieldVx * sin + fieldVy * cos;
+        outSpeeds.omegaRadiansPerSecond = omega;
+    }
+
+    @Override
+    public boolean isFinished() {
+        return m_timer.hasElapsed(m_trajectory.getTotalTimeSeconds());
+    }
+
+    @Override
+    public void end(boolean interrupted) {
+        m_timer.stop();
+        m_speeds.vxMetersPerSecond = 0.0;
+        m_speeds.vyMetersPerSecond = 0.0;
+        m_speeds.omegaRadiansPerSecond = 0.0;
+        // Leave path following mode so the next path switches to its limits again
+        swerve.driveOpenLoop(m_speeds);
+        swerve.setKinematicLimits(m_previousLimits);
+    }
+}
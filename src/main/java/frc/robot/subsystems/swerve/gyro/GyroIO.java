@@ -14,6 +14,10 @@ public interface GyroIO {
         public double pitchVelocityRadPerSec = 0.0;
         public double yawVelocityRadPerSec = 0.0;
 
+        // Samples taken by the odometry thread since the last update
+        public double[] odometryTimestamps = new double[] {};
+        public double[] odometryYawPositionsRad = new double[] {};
+
         @Override
         public void toLog(LogTable table) {
             table.put("Connected", connected);
@@ -23,11 +27,20 @@ public interface GyroIO {
             table.put("rollVelocityRadPerSec", rollVelocityRadPerSec);
             table.put("pitchVelocityRadPerSec", pitchVelocityRadPerSec);
             table.put("yawVelocityRadPerSec", yawVelocityRadPerSec);
+            table.put("OdometryTimestamps", odometryTimestamps);
+            table.put("OdometryYawPositionsRad", odometryYawPositionsRad);
         }
         @Override
         public void fromLog(LogTable table) {
-            // TODO Auto-generated method stub
-            
+            connected = table.getBoolean("Connected", connected);
+            rollPositionRad = table.getDouble("rollPositionRad", rollPositionRad);
+            pitchPositionRad = table.getDouble("pitchPositionRad", pitchPositionRad);
+            yawPositionRad = table.getDouble("yawPositionRad", yawPositionRad);
+            rollVelocityRadPerSec = table.getDouble("rollVelocityRadPerSec", rollVelocityRadPerSec);
+            pitchVelocityRadPerSec = table.getDouble("pitchVelocityRadPerSec", pitchVelocityRadPerSec);
+            yawVelocityRadPerSec = table.getDouble("yawVelocityRadPerSec", yawVelocityRadPerSec);
+            odometryTimestamps = table.getDoubleArray("OdometryTimestamps", odometryTimestamps);
+            odometryYawPositionsRad = table.getDoubleArray("OdometryYawPositionsRad", odometryYawPositionsRad);
         }
     }
 
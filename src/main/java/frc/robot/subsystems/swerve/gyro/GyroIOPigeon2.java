@@ -4,12 +4,18 @@ import com.ctre.phoenix.ErrorCode;
 import com.ctre.phoenix.sensors.Pigeon2;
 import com.ctre.phoenix.sensors.PigeonIMU_StatusFrame;
 import edu.wpi.first.math.util.Units;
+import frc.lib.team5557.util.CANBusUtilization;
+import frc.robot.subsystems.swerve.OdometryThread;
+import frc.robot.subsystems.swerve.OdometryThread.SampledSignals;
+
+import static frc.robot.subsystems.swerve.SwerveConstants.kOdometryFrequencyHz;
 
 /** IO implementation for Pigeon2 */
 public class GyroIOPigeon2 implements GyroIO {
     private final Pigeon2 pigeon;
     private final double[] yprDegrees = new double[3];
     private final double[] xyzDps = new double[3];
+    private final SampledSignals yawSignals;
 
     public GyroIOPigeon2() {
         System.out.println("[Init] Creating GyroIOPigeon2");
@@ -20,6 +26,12 @@ public class GyroIOPigeon2 implements GyroIO {
         pigeon.zeroGyroBiasNow();
         pigeon.setYaw(0.0);
         pigeon.setStatusFramePeriod(PigeonIMU_StatusFrame.BiasedStatus_2_Gyro, 20);
+        pigeon.setStatusFramePeriod(PigeonIMU_StatusFrame.CondStatus_9_SixDeg_YPR,
+                (int) (1000.0 / kOdometryFrequencyHz));
+        // Only the frames set here, the rest are left at their defaults and not counted
+        CANBusUtilization.register("Pigeon2 15", 50.0 + kOdometryFrequencyHz);
+
+        yawSignals = OdometryThread.getInstance().registerSignals(pigeon::getYaw);
     }
 
     public void updateInputs(GyroIOInputs inputs) {
@@ -32,5 +44,12 @@ public class GyroIOPigeon2 implements GyroIO {
         inputs.rollVelocityRadPerSec = Units.degreesToRadians(xyzDps[1]);
         inputs.pitchVelocityRadPerSec = Units.degreesToRadians(-xyzDps[0]);
         inputs.yawVelocityRadPerSec = Units.degreesToRadians(xyzDps[2]);
+
+        double[][] samples = yawSignals.drainColumns();
+        inputs.odometryTimestamps = samples[0];
+        inputs.odometryYawPositionsRad = samples[1];
+        for (int i = 0; i < samples[1].length; i++) {
+            inputs.odometryYawPositionsRad[i] = Units.degreesToRadians(samples[1][i]);
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,25 @@
+package frc.robot.subsystems.swerve.gyro;
+
+import java.util.function.DoubleSupplier;
+
+import frc.robot.Robot;
+
+/** Integrates the yaw rate the drive reports, so the simulated robot has a working gyro. */
+public class GyroIOSim implements GyroIO {
+    private final DoubleSupplier m_yawRateRadPerSec;
+    private double m_yawRad = 0.0;
+
+    public GyroIOSim(DoubleSupplier yawRateRadPerSec) {
+        System.out.println("[Init] Creating GyroIOSim");
+        m_yawRateRadPerSec = yawRateRadPerSec;
+    }
+
+    public void updateInputs(GyroIOInputs inputs) {
+        double yawRate = m_yawRateRadPerSec.getAsDouble();
+        m_yawRad += yawRate * Robot.defaultPeriodSecs;
+
+        inputs.connected = true;
+        inputs.yawPositionRad = m_yawRad;
+        inputs.yawVelocityRadPerSec = yawRate;
+    }
+}
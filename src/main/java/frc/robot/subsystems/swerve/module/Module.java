@@ -160,6 +160,27 @@ public class Module {
         return new SwerveModulePosition(distance, angle);
     }
 
+    /** @return the number of odometry samples taken since the last update */
+    public int getOdometrySampleCount() {
+        return m_inputs.odometryTimestamps.length;
+    }
+
+    /** @return the timestamps of the odometry samples taken since the last update */
+    public double[] getOdometryTimestamps() {
+        return m_inputs.odometryTimestamps;
+    }
+
+    /**
+     * Get the position of this swerve module at one of the odometry samples.
+     *
+     * @param sample the index of the sample, less than {@link #getOdometrySampleCount()}
+     * @return the position of this swerve module when the sample was taken
+     */
+    public SwerveModulePosition getOdometryPosition(int sample) {
+        return new SwerveModulePosition(m_inputs.odometryDrivePositionsMeters[sample],
+                Rotation2d.fromRadians(m_inputs.odometryAnglePositionsRad[sample]));
+    }
+
     /**
      * Get the number of this swerve module.
      *
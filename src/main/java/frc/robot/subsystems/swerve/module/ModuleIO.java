@@ -19,6 +19,11 @@ public interface ModuleIO {
         double[] angleCurrentAmps = new double[] {};
         double[] angleTempCelsius = new double[] {};
 
+        // Samples taken by the odometry thread since the last update
+        double[] odometryTimestamps = new double[] {};
+        double[] odometryDrivePositionsMeters = new double[] {};
+        double[] odometryAnglePositionsRad = new double[] {};
+
         @Override
         public void toLog(LogTable table) {
             table.put("DriveDistanceMeters", driveDistanceMeters);
@@ -33,11 +38,33 @@ public interface ModuleIO {
             table.put("AngleAppliedVolts", angleAppliedVolts);
             table.put("AngleCurrentAmps", angleCurrentAmps);
             table.put("AngleTempCelsius", angleTempCelsius);
+
+            table.put("OdometryTimestamps", odometryTimestamps);
+            table.put("OdometryDrivePositionsMeters", odometryDrivePositionsMeters);
+            table.put("OdometryAnglePositionsRad", odometryAnglePositionsRad);
         }
 
         @Override
         public void fromLog(LogTable table) {
-
+            driveDistanceMeters = table.getDouble("DriveDistanceMeters", driveDistanceMeters);
+            driveVelocityMetersPerSec = table.getDouble("DriveVelocityMetersPerSec", driveVelocityMetersPerSec);
+            driveAppliedVolts = table.getDouble("DriveAppliedVolts", driveAppliedVolts);
+            driveCurrentAmps = table.getDoubleArray("DriveCurrentAmps", driveCurrentAmps);
+            driveTempCelsius = table.getDoubleArray("DriveTempCelsius", driveTempCelsius);
+
+            angleAbsolutePositionRad = table.getDouble("AngleAbsolutePositionRad", angleAbsolutePositionRad);
+            angleInternalPositionRad = table.getDouble("AngleInternalPositionRad", angleInternalPositionRad);
+            angleInternalVelocityRadPerSec = table.getDouble("AngleInternalVelocityRadPerSec",
+                    angleInternalVelocityRadPerSec);
+            angleAppliedVolts = table.getDouble("AngleAppliedVolts", angleAppliedVolts);
+            angleCurrentAmps = table.getDoubleArray("AngleCurrentAmps", angleCurrentAmps);
+            angleTempCelsius = table.getDoubleArray("AngleTempCelsius", angleTempCelsius);
+
+            odometryTimestamps = table.getDoubleArray("OdometryTimestamps", odometryTimestamps);
+            odometryDrivePositionsMeters = table.getDoubleArray("OdometryDrivePositionsMeters",
+                    odometryDrivePositionsMeters);
+            odometryAnglePositionsRad = table.getDoubleArray("OdometryAnglePositionsRad",
+                    odometryAnglePositionsRad);
         }
     }
 
@@ -4,6 +4,7 @@ import com.ctre.phoenix.ErrorCode;
 import com.ctre.phoenix.sensors.AbsoluteSensorRange;
 import com.ctre.phoenix.sensors.CANCoder;
 import com.ctre.phoenix.sensors.CANCoderConfiguration;
+import com.ctre.phoenix.sensors.CANCoderStatusFrame;
 import com.ctre.phoenix.sensors.SensorInitializationStrategy;
 import com.ctre.phoenix.sensors.SensorTimeBase;
 import com.revrobotics.CANSparkMax;
@@ -17,7 +18,12 @@ import edu.wpi.first.math.geometry.Rotation2d;
 import edu.wpi.first.math.util.Units;
 import frc.lib.team5557.factory.BurnManager;
 import frc.lib.team5557.factory.SparkMaxFactory;
+import frc.lib.team5557.factory.SparkMaxGains;
+import frc.lib.team5557.util.CANBusUtilization;
+import frc.lib.team6328.TunableGroup;
 import frc.lib.team6328.TunableNumber;
+import frc.robot.subsystems.swerve.OdometryThread;
+import frc.robot.subsystems.swerve.OdometryThread.SampledSignals;
 
 import static frc.robot.subsystems.swerve.SwerveConstants.*;
 
@@ -35,14 +41,19 @@ public class ModuleIOSparkMax implements ModuleIO {
 
     private CANCoder m_absoluteEncoder;
 
+    private final SampledSignals m_odometrySignals;
+
     private SimpleMotorFeedforward m_driveFeedforward = new SimpleMotorFeedforward(0.0, 0.0);
 
-    private final TunableNumber driveKp = new TunableNumber("Swerve/DriveKp", kDrivekP);
-    private final TunableNumber driveKi = new TunableNumber("Swerve/DriveKi", kDrivekI);
-    private final TunableNumber driveKd = new TunableNumber("Swerve/DriveKd", kDrivekD);
-    private final TunableNumber angleKp = new TunableNumber("Swerve/AngleKp", kAnglekP);
-    private final TunableNumber angleKi = new TunableNumber("Swerve/AngleKi", kAnglekI);
-    private final TunableNumber angleKd = new TunableNumber("Swerve/AngleKd", kAnglekD);
+    private final SparkMaxGains m_driveGains;
+    private final SparkMaxGains m_angleGains;
+    private final TunableGroup m_gains = new TunableGroup();
+    private final TunableNumber driveKp = m_gains.add("Swerve/DriveKp", kDrivekP);
+    private final TunableNumber driveKi = m_gains.add("Swerve/DriveKi", kDrivekI);
+    private final TunableNumber driveKd = m_gains.add("Swerve/DriveKd", kDrivekD);
+    private final TunableNumber angleKp = m_gains.add("Swerve/AngleKp", kAnglekP);
+    private final TunableNumber angleKi = m_gains.add("Swerve/AngleKi", kAnglekI);
+    private final TunableNumber angleKd = m_gains.add("Swerve/AngleKd", kAnglekD);
 
     private final double m_angleOffsetDeg;
     private double resetIteration;
@@ -62,9 +73,12 @@ public class ModuleIOSparkMax implements ModuleIO {
         m_angleMotorEncoder = m_angleMotor.getEncoder();
         m_driveMotorEncoder = m_driveMotor.getEncoder();
 
-        m_angleMotorPID.setPositionPIDWrappingMinInput(0.0);
-        m_angleMotorPID.setPositionPIDWrappingMaxInput(kAngleGearReduction);
-        m_angleMotorPID.setPositionPIDWrappingEnabled(true);
+        m_driveGains = new SparkMaxGains(m_driveMotor, 0, kDrivePIDConfiguration);
+        m_angleGains = new SparkMaxGains(m_angleMotor, 0, kAnglePIDConfiguration);
+        m_gains.onChange(this::applyGains);
+
+        m_odometrySignals = OdometryThread.getInstance().registerSignals(
+                m_driveMotorEncoder::getPosition, m_absoluteEncoder::getAbsolutePosition);
         
         BurnManager.burnFlash(m_angleMotor);
         BurnManager.burnFlash(m_driveMotor);
@@ -87,6 +101,10 @@ public class ModuleIOSparkMax implements ModuleIO {
         config.magnetOffsetDegrees = this.m_angleOffsetDeg;
         config.sensorTimeBase = SensorTimeBase.PerSecond;
         m_absoluteEncoder.configAllSettings(config);
+        m_absoluteEncoder.setStatusFramePeriod(CANCoderStatusFrame.SensorData,
+                (int) (1000.0 / kOdometryFrequencyHz));
+        // Sensor data plus the default 100 ms battery and faults frame
+        CANBusUtilization.register("CANCoder " + id, kOdometryFrequencyHz + 10.0);
     }
 
     private void configDriveMotor(int id) {
@@ -118,17 +136,20 @@ public class ModuleIOSparkMax implements ModuleIO {
         inputs.angleCurrentAmps = new double[] { m_angleMotor.getOutputCurrent() };
         inputs.angleTempCelsius = new double[] { m_angleMotor.getMotorTemperature() };
 
-        // update tunables
-        if (driveKp.hasChanged(driveKp.hashCode()) || driveKi.hasChanged(driveKi.hashCode()) || driveKd.hasChanged(driveKd.hashCode())
-            || angleKp.hasChanged(angleKp.hashCode()) || angleKi.hasChanged(angleKi.hashCode())|| angleKd.hasChanged(angleKd.hashCode())) {
-            m_driveMotorPID.setP(driveKp.get());
-            m_driveMotorPID.setI(driveKi.get());
-            m_driveMotorPID.setD(driveKd.get());
-            m_angleMotorPID.setP(angleKp.get());
-            m_angleMotorPID.setI(angleKi.get());
-            m_angleMotorPID.setD(angleKd.get());
+        double[][] samples = m_odometrySignals.drainColumns();
+        inputs.odometryTimestamps = samples[0];
+        inputs.odometryDrivePositionsMeters = samples[1];
+        inputs.odometryAnglePositionsRad = samples[2];
+        for (int i = 0; i < inputs.odometryTimestamps.length; i++) {
+            inputs.odometryDrivePositionsMeters[i] = rotationsToMeters(samples[1][i], kWheelCircumference,
+                    kDriveGearReduction);
+            inputs.odometryAnglePositionsRad[i] = Units.degreesToRadians(samples[2][i]);
         }
+    }
 
+    private void applyGains() {
+        m_driveGains.set(driveKp.get(), driveKi.get(), driveKd.get());
+        m_angleGains.set(angleKp.get(), angleKi.get(), angleKd.get());
     }
 
     /** Run the drive motor at the specified percentage of full power. */
@@ -21,6 +21,8 @@ import edu.wpi.first.wpilibj2.command.InstantCommand;
 import edu.wpi.first.wpilibj2.command.RunCommand;
 import edu.wpi.first.wpilibj2.command.SubsystemBase;
 import edu.wpi.first.wpilibj2.command.WaitUntilCommand;
+import frc.lib.team5557.util.LoopTimer;
+import frc.lib.team6328.TunableGroup;
 import frc.lib.team6328.TunableNumber;
 import frc.robot.subsystems.wrist.WristIO.WristIOInputs;
 import frc.robot.util.Util;
@@ -28,6 +30,7 @@ import frc.robot.util.Util;
 public class Wrist extends SubsystemBase {
     private final WristIO m_io;
     private final WristIOInputs m_inputs = new WristIOInputs();
+    private final LoopTimer.Section m_loopTiming = LoopTimer.getSection("Subsystems/Wrist");
 
     private ControlMode m_mode = ControlMode.OPEN_LOOP;
 
@@ -39,10 +42,11 @@ public class Wrist extends SubsystemBase {
     private double m_profileTimestamp = 0.0;
     private double m_demand = 0.0;
 
+    private final TunableGroup m_profileTunables = new TunableGroup();
     public final TunableNumber cruiseVelocity =
-            new TunableNumber("Wrist/cruiseVelocity", kCruiseVelocity);
+            m_profileTunables.add("Wrist/cruiseVelocity", kCruiseVelocity);
     public final TunableNumber desiredTimeToSpeed =
-            new TunableNumber("Wrist/desiredTimeToSpeed", kTimeToCruise);
+            m_profileTunables.add("Wrist/desiredTimeToSpeed", kTimeToCruise);
 
     public enum ControlMode {
         OPEN_LOOP, VOLTAGE, POSITION, MOTION_PROFILE
@@ -50,6 +54,7 @@ public class Wrist extends SubsystemBase {
 
     public Wrist(WristIO io) {
         System.out.println("[Init] Creating Wrist");
+        m_profileTunables.onChange(this::updateConstraints);
         this.m_io = io;
 
         ShuffleboardTab shuffleboardTab = Shuffleboard.getTab("Wrist");
@@ -69,6 +74,7 @@ public class Wrist extends SubsystemBase {
 
     @Override
     public void periodic() {
+        m_loopTiming.start();
         m_io.updateInputs(m_inputs);
         Logger.getInstance().processInputs("Wrist", m_inputs);
         Logger.getInstance().recordOutput("Wrist/Demand", m_demand);
@@ -86,11 +92,12 @@ public class Wrist extends SubsystemBase {
             Logger.getInstance().recordOutput("Wrist/Setpoint", m_setpoint.position);
         }
 
-        if (cruiseVelocity.hasChanged(cruiseVelocity.hashCode())
-                || desiredTimeToSpeed.hasChanged(desiredTimeToSpeed.hashCode())) {
-            m_constraints = new TrapezoidProfile.Constraints(cruiseVelocity.get(),
-                    (cruiseVelocity.get() / desiredTimeToSpeed.get()));
-        }
+        m_loopTiming.stop();
+    }
+
+    private void updateConstraints() {
+        m_constraints = new TrapezoidProfile.Constraints(cruiseVelocity.get(),
+                (cruiseVelocity.get() / desiredTimeToSpeed.get()));
     }
 
     private synchronized void runOpenLoop(double percent) {
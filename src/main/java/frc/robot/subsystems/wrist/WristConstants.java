@@ -4,6 +4,7 @@ import com.revrobotics.CANSparkMax.IdleMode;
 import edu.wpi.first.math.MathUtil;
 import frc.lib.team5557.factory.SparkMaxFactory.PIDConfiguration;
 import frc.lib.team5557.factory.SparkMaxFactory.SoftLimitsConfiguration;
+import frc.lib.team5557.factory.SparkMaxFactory.FrameProfile;
 import frc.lib.team5557.factory.SparkMaxFactory.SparkMaxConfiguration;
 import frc.lib.team5557.util.CANDeviceId;
 import frc.lib.team5557.util.CANDeviceId.CANDeviceType;
@@ -53,6 +54,7 @@ public class WristConstants {
     public static final SparkMaxConfiguration kMasterMotorConfiguration = new SparkMaxConfiguration();
     static {
         kMasterMotorConfiguration.canID = new CANDeviceId(CANDeviceType.SPARK_MAX, Constants.RobotMap.kWristMotor);
+        kMasterMotorConfiguration.label = "Wrist Master";
 
         kMasterMotorConfiguration.pid = kPIDConfiguration;
         kMasterMotorConfiguration.limits = kLimitConfiguration;
@@ -63,6 +65,8 @@ public class WristConstants {
         kMasterMotorConfiguration.kOpenLoopRampRate = 1.0;
         kMasterMotorConfiguration.kClosedLoopRampRate = 0.5;
         kMasterMotorConfiguration.kSmartCurrentLimit = 30.0;
+
+        kMasterMotorConfiguration.frames = FrameProfile.leader().withPositionPeriod(10);
     }
 
     public static double rotationsToDegrees(double rotations) {
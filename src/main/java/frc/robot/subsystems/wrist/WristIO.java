@@ -22,6 +22,9 @@ public interface WristIO {
 
         @Override
         public void fromLog(LogTable table) {
+            WristInternalPositionDeg = table.getDouble("WristInternalPositionDeg", WristInternalPositionDeg);
+            WristInternalVelocityDegPerSec = table.getDouble("WristInternalVelocityDegPerSec",
+                    WristInternalVelocityDegPerSec);
             WristAppliedVolts = table.getDouble("WristAppliedVolts", WristAppliedVolts);
             WristCurrentAmps = table.getDoubleArray("WristCurrentAmps", WristCurrentAmps);
             WristTempCelsius = table.getDoubleArray("WristTempCelsius", WristTempCelsius);
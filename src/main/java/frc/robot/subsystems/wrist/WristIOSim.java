@@ -0,0 +1,92 @@
+package frc.robot.subsystems.wrist;
+
+import static frc.robot.subsystems.wrist.WristConstants.kEncoderHomePosition;
+import static frc.robot.subsystems.wrist.WristConstants.kFirstSprocketTeethCount;
+import static frc.robot.subsystems.wrist.WristConstants.kGearReduction;
+import static frc.robot.subsystems.wrist.WristConstants.kMaxAngle;
+import static frc.robot.subsystems.wrist.WristConstants.kMinAngle;
+import static frc.robot.subsystems.wrist.WristConstants.kRotationsPerDegree;
+import static frc.robot.subsystems.wrist.WristConstants.kSecondSprocketTeethCount;
+import static frc.robot.subsystems.wrist.WristConstants.kWristkA;
+import static frc.robot.subsystems.wrist.WristConstants.kWristkD;
+import static frc.robot.subsystems.wrist.WristConstants.kWristkG;
+import static frc.robot.subsystems.wrist.WristConstants.kWristkI;
+import static frc.robot.subsystems.wrist.WristConstants.kWristkP;
+import static frc.robot.subsystems.wrist.WristConstants.kWristkS;
+import static frc.robot.subsystems.wrist.WristConstants.kWristkV;
+import edu.wpi.first.math.MathUtil;
+import edu.wpi.first.math.VecBuilder;
+import edu.wpi.first.math.controller.ArmFeedforward;
+import edu.wpi.first.math.controller.PIDController;
+import edu.wpi.first.math.system.plant.DCMotor;
+import edu.wpi.first.math.util.Units;
+import edu.wpi.first.wpilibj.simulation.SingleJointedArmSim;
+import frc.robot.Robot;
+
+public class WristIOSim implements WristIO {
+    private static final double kArmLengthMeters = 0.35;
+    private static final double kArmMassKg = 4.0;
+
+    // The wrist boots at its home position, which sits past the soft limit
+    private final SingleJointedArmSim m_sim = new SingleJointedArmSim(DCMotor.getNEO(1),
+            kGearReduction * (kSecondSprocketTeethCount / kFirstSprocketTeethCount),
+            SingleJointedArmSim.estimateMOI(kArmLengthMeters, kArmMassKg), kArmLengthMeters,
+            Units.degreesToRadians(kMinAngle), Units.degreesToRadians(Math.max(kMaxAngle, kEncoderHomePosition)),
+            false);
+
+    // Same gain as the SparkMax loop, converted from duty cycle per rotation to volts per degree
+    private final PIDController m_pid = new PIDController(12.0 * kWristkP * kRotationsPerDegree,
+            12.0 * kWristkI * kRotationsPerDegree, 12.0 * kWristkD * kRotationsPerDegree);
+    private final ArmFeedforward m_feedforward = new ArmFeedforward(kWristkS, kWristkG, kWristkV, kWristkA);
+
+    private boolean m_closedLoop = false;
+    private double m_targetAngleDegrees = 0.0;
+    private double m_feedforwardVolts = 0.0;
+    private double m_appliedVolts = 0.0;
+    private double m_positionOffsetDegrees = 0.0;
+
+    public WristIOSim() {
+        System.out.println("[Init] Creating WristIOSim");
+        m_sim.setState(VecBuilder.fill(Units.degreesToRadians(kEncoderHomePosition), 0.0));
+    }
+
+    /** Updates the set of loggable inputs. */
+    public void updateInputs(WristIOInputs inputs) {
+        if (m_closedLoop) {
+            m_appliedVolts = MathUtil.clamp(m_pid.calculate(getAngleDegrees(), m_targetAngleDegrees)
+                    + m_feedforwardVolts, -12.0, 12.0);
+        }
+        m_sim.setInputVoltage(m_appliedVolts);
+        m_sim.update(Robot.defaultPeriodSecs);
+
+        inputs.WristInternalPositionDeg = getAngleDegrees();
+        inputs.WristInternalVelocityDegPerSec = Units.radiansToDegrees(m_sim.getVelocityRadPerSec());
+        inputs.WristAppliedVolts = m_appliedVolts;
+        inputs.WristCurrentAmps = new double[] { Math.abs(m_sim.getCurrentDrawAmps()) };
+        inputs.WristTempCelsius = new double[] {};
+    }
+
+    private double getAngleDegrees() {
+        return Units.radiansToDegrees(m_sim.getAngleRads()) + m_positionOffsetDegrees;
+    }
+
+    /** Run the Wrist open loop at the specified voltage. */
+    public void setVoltage(double volts) {
+        m_closedLoop = false;
+        m_appliedVolts = MathUtil.clamp(volts, -12.0, 12.0);
+    }
+
+    public void setPercent(double percent) {
+        setVoltage(percent * 12.0);
+    }
+
+    public void setAngleDegrees(double targetAngleDegrees, double targetVelocityDegreesPerSec) {
+        m_closedLoop = true;
+        m_feedforwardVolts = m_feedforward.calculate(targetAngleDegrees, targetVelocityDegreesPerSec);
+        m_targetAngleDegrees = WristConstants.constrainDegrees(targetAngleDegrees);
+    }
+
+    public void resetSensorPosition(double angleDegrees) {
+        m_positionOffsetDegrees = angleDegrees - Units.radiansToDegrees(m_sim.getAngleRads());
+    }
+}
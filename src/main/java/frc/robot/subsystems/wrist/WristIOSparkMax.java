@@ -21,6 +21,8 @@ import com.revrobotics.SparkMaxPIDController;
 import edu.wpi.first.math.controller.ArmFeedforward;
 import frc.lib.team5557.factory.BurnManager;
 import frc.lib.team5557.factory.SparkMaxFactory;
+import frc.lib.team5557.factory.SparkMaxGains;
+import frc.lib.team6328.TunableGroup;
 import frc.lib.team6328.TunableNumber;
 
 public class WristIOSparkMax implements WristIO {
@@ -31,23 +33,22 @@ public class WristIOSparkMax implements WristIO {
     private final SparkMaxPIDController m_pid;
     private final ArmFeedforward m_feedforward;
 
-    private final TunableNumber wristkP = new TunableNumber("Wrist/WristkP", kWristkP);
-    private final TunableNumber wristkI = new TunableNumber("Wrist/WristkI", kWristkI);
-    private final TunableNumber wristkD = new TunableNumber("Wrist/WristkD", kWristkD);
+    private final SparkMaxGains m_gains;
+    private final TunableGroup m_tunableGains = new TunableGroup();
+    private final TunableNumber wristkP = m_tunableGains.add("Wrist/WristkP", kWristkP);
+    private final TunableNumber wristkI = m_tunableGains.add("Wrist/WristkI", kWristkI);
+    private final TunableNumber wristkD = m_tunableGains.add("Wrist/WristkD", kWristkD);
 
     public WristIOSparkMax() {
         System.out.println("[Init] Creating WristIOSparkMax");
         m_master = SparkMaxFactory.createNEO(kMasterMotorConfiguration);
         m_encoder = m_master.getEncoder();
         m_pid = m_master.getPIDController();
-        m_pid.setFeedbackDevice(m_encoder);
+        m_gains = new SparkMaxGains(m_master, 0, WristConstants.kPIDConfiguration);
+        m_tunableGains.onChange(this::applyGains);
         m_encoder.setPosition(degreesToRotations(kEncoderHomePosition));
         BurnManager.burnFlash(m_master);
 
-        SparkMaxFactory.configFramesLeaderOrFollower(m_master);
-        SparkMaxFactory.configFramesPositionBoost(m_master);
-        SparkMaxFactory.configFramesAbsoluteEncoderBoost(m_master);
-
         m_feedforward = new ArmFeedforward(kWristkS, kWristkG, kWristkV, kWristkA);
     }
 
@@ -58,14 +59,10 @@ public class WristIOSparkMax implements WristIO {
         inputs.WristAppliedVolts = m_master.getAppliedOutput() * m_master.getBusVoltage();
         inputs.WristCurrentAmps = new double[] { m_master.getOutputCurrent() };
         inputs.WristTempCelsius = new double[] { m_master.getMotorTemperature() };
+    }
 
-        // update tunables
-        if (wristkP.hasChanged(wristkP.hashCode()) || wristkI.hasChanged(wristkI.hashCode())
-                || wristkD.hasChanged(wristkD.hashCode())) {
-            m_pid.setP(wristkP.get());
-            m_pid.setI(wristkI.get());
-            m_pid.setD(wristkD.get());
-        }
+    private void applyGains() {
+        m_gains.set(wristkP.get(), wristkI.get(), wristkD.get());
     }
 
     /** Run the Wrist open loop at the specified voltage. */
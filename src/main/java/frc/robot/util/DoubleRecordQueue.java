@@ -0,0 +1,127 @@
+package frc.robot.util;
+
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free queue of fixed width double records for exactly one producer thread and one consumer
+ * thread. Records are copied in and out of a flat ring buffer, so offering never allocates. When
+ * full, the producer writes over the oldest record, so the newest records are always kept and the
+ * overwritten ones are counted as dropped.
+ *
+ * <p>
+ * Every record gets a sequence number, its position in the stream. The producer publishes the next
+ * sequence number after each record, and the consumer reads it again after copying records out.
+ * Anything the producer may have started writing over in the meantime is thrown away, the same way
+ * a seqlock reader retries, so the producer never waits on the consumer.
+ */
+public class DoubleRecordQueue {
+    private final double[] m_buffer;
+    private final int m_width;
+    private final int m_capacity;
+
+    // Sequence number of the next record to read, only touched by the consumer
+    private long m_head = 0;
+    // Sequence number of the next record to write, only written by the producer
+    private final AtomicLong m_tail = new AtomicLong(0);
+    private final AtomicLong m_dropped = new AtomicLong(0);
+
+    public DoubleRecordQueue(int capacity, int width) {
+        m_buffer = new double[capacity * width];
+        m_width = width;
+        m_capacity = capacity;
+    }
+
+    /** Copies a record into the queue, writing over the oldest one if full. Producer thread only. */
+    public void offer(double[] record) {
+        final long tail = m_tail.get();
+        // Order the write below after the tail published by the last offer, so a consumer that
+        // sees part of it also sees that the slot is being reused
+        VarHandle.storeStoreFence();
+        System.arraycopy(record, 0, m_buffer, (int) (tail % m_capacity) * m_width, m_width);
+        // Publish the record after it is written
+        m_tail.lazySet(tail + 1);
+    }
+
+    /** Copies the oldest record out of the queue. Consumer thread only. */
+    public boolean poll(double[] record) {
+        while (true) {
+            final long tail = m_tail.get();
+            skipOverwritten(tail);
+            if (m_head >= tail) {
+                return false;
+            }
+            System.arraycopy(m_buffer, (int) (m_head % m_capacity) * m_width, record, 0, m_width);
+            final int lost = countOverwritten(m_head, 1);
+            m_head++;
+            if (lost == 0) {
+                return true;
+            }
+            m_dropped.incrementAndGet();
+        }
+    }
+
+    /**
+     * Drains every queued record into one array per field, so columns[f][r] is field f of record r.
+     * Consumer thread only.
+     */
+    public double[][] drainColumns() {
+        final long tail = m_tail.get();
+        skipOverwritten(tail);
+        final long head = m_head;
+        final int count = (int) (tail - head);
+        double[][] columns = new double[m_width][count];
+        for (int r = 0; r < count; r++) {
+            final int offset = (int) ((head + r) % m_capacity) * m_width;
+            for (int f = 0; f < m_width; f++) {
+                columns[f][r] = m_buffer[offset + f];
+            }
+        }
+        m_head = tail;
+
+        final int lost = countOverwritten(head, count);
+        if (lost > 0) {
+            m_dropped.addAndGet(lost);
+            for (int f = 0; f < m_width; f++) {
+                columns[f] = Arrays.copyOfRange(columns[f], lost, count);
+            }
+        }
+        return columns;
+    }
+
+    /** Moves the head past records the producer has already written over. */
+    private void skipOverwritten(long tail) {
+        final long oldest = tail - m_capacity;
+        if (m_head < oldest) {
+            m_dropped.addAndGet(oldest - m_head);
+            m_head = oldest;
+        }
+    }
+
+    /**
+     * @return How many of the count records copied from head on may have been written over while
+     *         they were copied. Those are always the oldest ones.
+     */
+    private int countOverwritten(long head, int count) {
+        // Keep the copies above from being read after the tail below
+        VarHandle.acquireFence();
+        // The producer may be writing the record at the tail, which reuses the slot capacity back
+        final long oldestIntact = m_tail.get() - m_capacity + 1;
+        return (int) Math.max(0, Math.min(count, oldestIntact - head));
+    }
+
+    /** Consumer thread only. */
+    public int size() {
+        return (int) Math.min(m_tail.get() - m_head, m_capacity);
+    }
+
+    public int getWidth() {
+        return m_width;
+    }
+
+    /** @return The number of records dropped because they were written over before being read. */
+    public long getDroppedCount() {
+        return m_dropped.get();
+    }
+}
@@ -4,6 +4,7 @@ import edu.wpi.first.math.controller.PIDController;
 import edu.wpi.first.math.controller.ProfiledPIDController;
 import edu.wpi.first.math.geometry.Rotation2d;
 import edu.wpi.first.math.trajectory.TrapezoidProfile.Constraints;
+import frc.lib.team6328.TunableGroup;
 import frc.lib.team6328.TunableNumber;
 import frc.lib.team6328.VirtualSubsystem;
 import frc.robot.RobotContainer;
@@ -22,41 +23,33 @@ public class DriveMotionPlanner extends VirtualSubsystem {
     private static final ProfiledPIDController snapController = new ProfiledPIDController(
             kRotationkP, kRotationkI, kRotationkD, new Constraints(kSnapMaxOmega, kSnapMaxAlpha));
 
+    private static final TunableGroup tunables = new TunableGroup()
+            .onChange(DriveMotionPlanner::applyGains);
     private static final TunableNumber translationkP =
-            new TunableNumber("Swerve/TranslationKP", kTranslationkP);
+            tunables.add("Swerve/TranslationKP", kTranslationkP);
     private static final TunableNumber translationkI =
-            new TunableNumber("Swerve/TranslationKI", kTranslationkI);
+            tunables.add("Swerve/TranslationKI", kTranslationkI);
     private static final TunableNumber translationkD =
-            new TunableNumber("Swerve/TranslationKD", kTranslationkD);
+            tunables.add("Swerve/TranslationKD", kTranslationkD);
 
     private static final TunableNumber rotationkP =
-            new TunableNumber("Swerve/RotationKP", kRotationkP);
+            tunables.add("Swerve/RotationKP", kRotationkP);
     private static final TunableNumber rotationkI =
-            new TunableNumber("Swerve/RotationKI", kRotationkI);
+            tunables.add("Swerve/RotationKI", kRotationkI);
     private static final TunableNumber rotationkD =
-            new TunableNumber("Swerve/RotationKD", kRotationkD);
+            tunables.add("Swerve/RotationKD", kRotationkD);
 
     private static final TunableNumber snapMaxOmega =
-            new TunableNumber("Swerve/SnapMaxOmega", kSnapMaxOmega);
+            tunables.add("Swerve/SnapMaxOmega", kSnapMaxOmega);
     private static final TunableNumber snapMaxAlpha =
-            new TunableNumber("Swerve/SnapMaxAlpha", kSnapMaxAlpha);
+            tunables.add("Swerve/SnapMaxAlpha", kSnapMaxAlpha);
 
-    public static void checkForUpdates() {
-        if (translationkP.hasChanged(translationkP.hashCode())
-                || translationkI.hasChanged(translationkI.hashCode())
-                || translationkD.hasChanged(translationkD.hashCode())
-                || rotationkP.hasChanged(rotationkP.hashCode())
-                || rotationkI.hasChanged(rotationkI.hashCode())
-                || rotationkD.hasChanged(rotationkD.hashCode())
-                || snapMaxOmega.hasChanged(snapMaxOmega.hashCode())
-                || snapMaxAlpha.hasChanged(snapMaxAlpha.hashCode())) {
-            forwardController.setPID(translationkP.get(), translationkI.get(), translationkD.get());
-            strafeController.setPID(translationkP.get(), translationkI.get(), translationkD.get());
-            rotationController.setPID(rotationkP.get(), rotationkI.get(), rotationkD.get());
-            snapController.setPID(rotationkP.get(), rotationkI.get(), rotationkD.get());
-            snapController.setConstraints(new Constraints(snapMaxOmega.get(), snapMaxAlpha.get()));
-
-        }
+    private static void applyGains() {
+        forwardController.setPID(translationkP.get(), translationkI.get(), translationkD.get());
+        strafeController.setPID(translationkP.get(), translationkI.get(), translationkD.get());
+        rotationController.setPID(rotationkP.get(), rotationkI.get(), rotationkD.get());
+        snapController.setPID(rotationkP.get(), rotationkI.get(), rotationkD.get());
+        snapController.setConstraints(new Constraints(snapMaxOmega.get(), snapMaxAlpha.get()));
     }
 
     public static void configureControllers() {
@@ -65,9 +58,7 @@ public class DriveMotionPlanner extends VirtualSubsystem {
     }
 
     @Override
-    public void periodic() {
-        checkForUpdates();
-    }
+    public void periodic() {}
     
     public static double calculateSnap(Rotation2d goalAngle) {
         return snapController.calculate(swerve.getYaw().getRadians(), goalAngle.getRadians());
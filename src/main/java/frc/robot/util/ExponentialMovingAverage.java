@@ -0,0 +1,35 @@
+package frc.robot.util;
+
+/** Exponentially weighted average, out = alpha * sample + (1 - alpha) * out. */
+public class ExponentialMovingAverage implements WindowedFilter {
+    private final double alpha;
+    private double value = Double.NaN;
+
+    public ExponentialMovingAverage(double alpha) {
+        if (alpha <= 0.0 || alpha > 1.0) {
+            throw new IllegalArgumentException("alpha must be in (0, 1], got " + alpha);
+        }
+        this.alpha = alpha;
+    }
+
+    /** @return An average with the same center of mass as a windowSize sample moving average. */
+    public static ExponentialMovingAverage fromWindowSize(int windowSize) {
+        return new ExponentialMovingAverage(2.0 / (windowSize + 1.0));
+    }
+
+    @Override
+    public void add(double number) {
+        // Seed with the first sample instead of decaying from zero
+        value = Double.isNaN(value) ? number : value + alpha * (number - value);
+    }
+
+    @Override
+    public double get() {
+        return value;
+    }
+
+    @Override
+    public void clear() {
+        value = Double.NaN;
+    }
+}
@@ -0,0 +1,193 @@
+package frc.robot.util;
+
+import java.util.Arrays;
+import java.util.List;
+
+import com.pathplanner.lib.PathPlannerTrajectory;
+import com.pathplanner.lib.PathPlannerTrajectory.PathPlannerState;
+import edu.wpi.first.math.MathUtil;
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.wpilibj.DriverStation.Alliance;
+
+/**
+ * A PathPlanner trajectory with its states copied into primitive columns and a time index. Lookups
+ * remember the last segment and scan forward from it, so sampling a trajectory in order is O(1)
+ * per sample, and jumps fall back to a binary search. {@link #seek(double)} and the getters
+ * interpolate without allocating, {@link #sample(double)} builds a state for code that needs one.
+ *
+ * <p>
+ * The trajectory is mirrored for the alliance up front and marked as not from the GUI, so
+ * PathPlanner's commands sample it as is instead of copying it into a plain trajectory.
+ */
+public class IndexedTrajectory extends PathPlannerTrajectory {
+    // Segments to step forward before giving up and searching
+    private static final int kMaxForwardScan = 8;
+
+    private final double[] m_time;
+    private final double[] m_x;
+    private final double[] m_y;
+    private final double[] m_heading;
+    private final double[] m_velocity;
+    private final double[] m_acceleration;
+    private final double[] m_curvature;
+    private final double[] m_angularVelocity;
+    private final double[] m_holonomicRotation;
+    private final double[] m_holonomicAngularVelocity;
+
+    private int m_cursor = 0;
+    private int m_lower = 0;
+    private int m_upper = 0;
+    private double m_fraction = 0.0;
+
+    /** @return The trajectory mirrored for this alliance, with a time index. */
+    public static IndexedTrajectory forAlliance(PathPlannerTrajectory trajectory,
+            Alliance alliance) {
+        return new IndexedTrajectory(
+                PathPlannerTrajectory.transformTrajectoryForAlliance(trajectory, alliance));
+    }
+
+    public IndexedTrajectory(PathPlannerTrajectory trajectory) {
+        super(trajectory.getStates(), trajectory.getMarkers(), trajectory.getStartStopEvent(),
+                trajectory.getEndStopEvent(), false);
+
+        List<State> states = trajectory.getStates();
+        int count = states.size();
+        m_time = new double[count];
+        m_x = new double[count];
+        m_y = new double[count];
+        m_heading = new double[count];
+        m_velocity = new double[count];
+        m_acceleration = new double[count];
+        m_curvature = new double[count];
+        m_angularVelocity = new double[count];
+        m_holonomicRotation = new double[count];
+        m_holonomicAngularVelocity = new double[count];
+
+        for (int i = 0; i < count; i++) {
+            PathPlannerState state = (PathPlannerState) states.get(i);
+            m_time[i] = state.timeSeconds;
+            m_x[i] = state.poseMeters.getX();
+            m_y[i] = state.poseMeters.getY();
+            m_heading[i] = state.poseMeters.getRotation().getRadians();
+            m_velocity[i] = state.velocityMetersPerSecond;
+            m_acceleration[i] = state.accelerationMetersPerSecondSq;
+            m_curvature[i] = state.curvatureRadPerMeter;
+            m_angularVelocity[i] = state.angularVelocityRadPerSec;
+            m_holonomicRotation[i] = state.holonomicRotation.getRadians();
+            m_holonomicAngularVelocity[i] = state.holonomicAngularVelocityRadPerSec;
+        }
+    }
+
+    /** Moves to the given time, clamped to the trajectory. The getters then read this point. */
+    public void seek(double timeSeconds) {
+        int last = m_time.length - 1;
+        if (timeSeconds <= m_time[0]) {
+            setSegment(0, 0, 0.0);
+            return;
+        }
+        if (timeSeconds >= m_time[last]) {
+            setSegment(last, last, 0.0);
+            return;
+        }
+
+        int lower = findSegment(timeSeconds);
+        m_cursor = lower;
+        double segmentSeconds = m_time[lower + 1] - m_time[lower];
+        setSegment(lower, lower + 1,
+                segmentSeconds > 0.0 ? (timeSeconds - m_time[lower]) / segmentSeconds : 0.0);
+    }
+
+    /** @return The index i with time[i] <= t < time[i + 1]. t must be inside the trajectory. */
+    private int findSegment(double timeSeconds) {
+        int from = 0;
+        if (timeSeconds >= m_time[m_cursor]) {
+            int scanEnd = Math.min(m_cursor + kMaxForwardScan, m_time.length - 1);
+            for (int i = m_cursor; i < scanEnd; i++) {
+                if (timeSeconds < m_time[i + 1]) {
+                    return i;
+                }
+            }
+            from = scanEnd;
+        }
+
+        int index = Arrays.binarySearch(m_time, from, m_time.length, timeSeconds);
+        // A miss returns -(insertion point) - 1, and the segment starts one before that point
+        return index >= 0 ? index : -index - 2;
+    }
+
+    private void setSegment(int lower, int upper, double fraction) {
+        m_lower = lower;
+        m_upper = upper;
+        m_fraction = fraction;
+    }
+
+    private double interpolate(double[] column) {
+        return column[m_lower] + (column[m_upper] - column[m_lower]) * m_fraction;
+    }
+
+    private double interpolateAngle(double[] column) {
+        return column[m_lower]
+                + MathUtil.angleModulus(column[m_upper] - column[m_lower]) * m_fraction;
+    }
+
+    public double getTimeSeconds() {
+        return interpolate(m_time);
+    }
+
+    public double getX() {
+        return interpolate(m_x);
+    }
+
+    public double getY() {
+        return interpolate(m_y);
+    }
+
+    public double getHeadingRadians() {
+        return interpolateAngle(m_heading);
+    }
+
+    public double getVelocity() {
+        return interpolate(m_velocity);
+    }
+
+    public double getAcceleration() {
+        return interpolate(m_acceleration);
+    }
+
+    public double getCurvature() {
+        return interpolate(m_curvature);
+    }
+
+    public double getAngularVelocity() {
+        return interpolate(m_angularVelocity);
+    }
+
+    public double getHolonomicRotationRadians() {
+        return interpolateAngle(m_holonomicRotation);
+    }
+
+    public double getHolonomicAngularVelocity() {
+        return interpolate(m_holonomicAngularVelocity);
+    }
+
+    /**
+     * Returns a new state on every call, so callers can hold on to it like any other trajectory's
+     * sample. Loops that sample every cycle use {@link #seek(double)} and the getters instead.
+     */
+    @Override
+    public State sample(double timeSeconds) {
+        seek(timeSeconds);
+
+        PathPlannerState state = new PathPlannerState();
+        state.timeSeconds = getTimeSeconds();
+        state.poseMeters = new Pose2d(getX(), getY(), new Rotation2d(getHeadingRadians()));
+        state.velocityMetersPerSecond = getVelocity();
+        state.accelerationMetersPerSecondSq = getAcceleration();
+        state.curvatureRadPerMeter = getCurvature();
+        state.angularVelocityRadPerSec = getAngularVelocity();
+        state.holonomicRotation = new Rotation2d(getHolonomicRotationRadians());
+        state.holonomicAngularVelocityRadPerSec = getHolonomicAngularVelocity();
+        return state;
+    }
+}
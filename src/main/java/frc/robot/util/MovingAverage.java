@@ -1,39 +1,46 @@
 package frc.robot.util;
 
-import java.util.ArrayList;
-import java.util.List;
-
-public class MovingAverage {
-    private final int maxSize;
-    private final List<Double> values = new ArrayList<>();
+/** Mean of the last maxSize samples, kept as a running sum so get() is O(1). */
+public class MovingAverage implements WindowedFilter {
+    private final double[] values;
     private int index = 0;
+    private int size = 0;
+    private double sum = 0.0;
 
     public MovingAverage(int maxSize) {
-        this.maxSize = maxSize;
+        values = new double[maxSize];
     }
 
+    @Override
     public void add(double number) {
-        if (values.size() != maxSize) {
-            values.add(number);
+        if (size != values.length) {
+            size++;
         } else {
-            values.set(index++, number);
-
-            if (index == maxSize) {
-                index = 0;
+            sum -= values[index];
+        }
+        values[index] = number;
+        sum += number;
+
+        index++;
+        if (index == values.length) {
+            index = 0;
+            // Re-sum once per lap so rounding error in the running sum can't build up
+            sum = 0.0;
+            for (int i = 0; i < size; i++) {
+                sum += values[i];
             }
         }
     }
 
+    @Override
     public double get() {
-        double average = 0;
-        for (Double value : values) {
-            average += value;
-        }
-
-        return average / values.size();
+        return sum / size;
     }
 
+    @Override
     public void clear() {
-        values.clear();
+        index = 0;
+        size = 0;
+        sum = 0.0;
     }
-}
\ No newline at end of file
+}
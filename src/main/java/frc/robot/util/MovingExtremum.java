@@ -0,0 +1,64 @@
+package frc.robot.util;
+
+/**
+ * Minimum or maximum of the last maxSize samples, using a monotonic queue of ring buffer slots so
+ * add() is amortized O(1) and get() is O(1).
+ */
+public class MovingExtremum implements WindowedFilter {
+    private final boolean isMax;
+    private final double[] values;
+    // Sample numbers whose values are monotonic from head to tail, the head is the extremum
+    private final long[] queue;
+    private int head = 0;
+    private int length = 0;
+    private long count = 0;
+
+    private MovingExtremum(int maxSize, boolean isMax) {
+        this.isMax = isMax;
+        values = new double[maxSize];
+        queue = new long[maxSize];
+    }
+
+    public static MovingExtremum max(int maxSize) {
+        return new MovingExtremum(maxSize, true);
+    }
+
+    public static MovingExtremum min(int maxSize) {
+        return new MovingExtremum(maxSize, false);
+    }
+
+    @Override
+    public void add(double number) {
+        final int capacity = values.length;
+        // Drop the head once it falls out of the window
+        if (length > 0 && queue[head] <= count - capacity) {
+            head = (head + 1) % capacity;
+            length--;
+        }
+        // Drop samples from the tail that can never be the extremum again
+        while (length > 0) {
+            int tail = (head + length - 1) % capacity;
+            double tailValue = values[(int) (queue[tail] % capacity)];
+            if (isMax ? tailValue > number : tailValue < number) {
+                break;
+            }
+            length--;
+        }
+        values[(int) (count % capacity)] = number;
+        queue[(head + length) % capacity] = count;
+        length++;
+        count++;
+    }
+
+    @Override
+    public double get() {
+        return length == 0 ? Double.NaN : values[(int) (queue[head] % values.length)];
+    }
+
+    @Override
+    public void clear() {
+        head = 0;
+        length = 0;
+        count = 0;
+    }
+}
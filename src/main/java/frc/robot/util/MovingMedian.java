@@ -0,0 +1,54 @@
+package frc.robot.util;
+
+import java.util.Arrays;
+
+/**
+ * Median of the last maxSize samples. A sorted copy of the window is kept next to the ring buffer,
+ * so get() is O(1) and add() is a binary search plus a shift of the sorted array.
+ */
+public class MovingMedian implements WindowedFilter {
+    private final double[] values;
+    private final double[] sorted;
+    private int index = 0;
+    private int size = 0;
+
+    public MovingMedian(int maxSize) {
+        values = new double[maxSize];
+        sorted = new double[maxSize];
+    }
+
+    @Override
+    public void add(double number) {
+        if (size == values.length) {
+            // Drop the oldest sample from the sorted window
+            int remove = Arrays.binarySearch(sorted, 0, size, values[index]);
+            System.arraycopy(sorted, remove + 1, sorted, remove, size - remove - 1);
+            size--;
+        }
+        values[index] = number;
+        index = (index + 1) % values.length;
+
+        int insert = Arrays.binarySearch(sorted, 0, size, number);
+        if (insert < 0) {
+            insert = -insert - 1;
+        }
+        System.arraycopy(sorted, insert, sorted, insert + 1, size - insert);
+        sorted[insert] = number;
+        size++;
+    }
+
+    @Override
+    public double get() {
+        if (size == 0) {
+            return Double.NaN;
+        }
+        int middle = size / 2;
+        return (size % 2 == 1) ? sorted[middle] : 0.5 * (sorted[middle - 1] + sorted[middle]);
+    }
+
+    @Override
+    public void clear() {
+        index = 0;
+        size = 0;
+    }
+}
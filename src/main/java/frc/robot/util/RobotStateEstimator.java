@@ -28,7 +28,6 @@ public class RobotStateEstimator extends VirtualSubsystem {
 
     public static RobotStateEstimator m_instance = null;
 
-    private final Swerve m_swerve = RobotContainer.m_swerve;
     private final Field2d m_field2d = new Field2d();
     private final Pose2d[] modulePoses = new Pose2d[4];
 
@@ -46,11 +45,18 @@ public class RobotStateEstimator extends VirtualSubsystem {
             new SwerveModulePosition(), new SwerveModulePosition() };
 
     private RobotStateEstimator() {
+        this(true);
+    }
+
+    /** Package-private so the benchmarks can build an estimator without a dashboard. */
+    RobotStateEstimator(boolean publishToDashboard) {
         m_poseEstimator = new SwerveDrivePoseEstimator(Swerve.m_kinematics, new Rotation2d(),
                 m_lastModulePositions, new Pose2d());
 
-        ShuffleboardTab shuffleboardTab = Shuffleboard.getTab("Driver");
-        shuffleboardTab.add(m_field2d);
+        if (publishToDashboard) {
+            ShuffleboardTab shuffleboardTab = Shuffleboard.getTab("Driver");
+            shuffleboardTab.add(m_field2d);
+        }
     }
 
     @Override
@@ -63,6 +69,16 @@ public class RobotStateEstimator extends VirtualSubsystem {
 
     /** Records a new drive movement without gyro. */
     public void addDriveData(SwerveModulePosition[] positions) {
+        addDriveData(MathSharedStore.getTimestamp(), positions);
+    }
+
+    /** Records a new drive movement with gyro. */
+    public void addDriveData(Rotation2d gyroAngle, SwerveModulePosition[] positions) {
+        addDriveData(MathSharedStore.getTimestamp(), gyroAngle, positions);
+    }
+
+    /** Records a drive movement sampled at the given timestamp, without gyro. */
+    public void addDriveData(double timestamp, SwerveModulePosition[] positions) {
         SwerveModulePosition[] wheelDeltas = new SwerveModulePosition[4];
         for (int i = 0; i < 4; i++) {
             wheelDeltas[i] = new SwerveModulePosition(
@@ -73,15 +89,15 @@ public class RobotStateEstimator extends VirtualSubsystem {
         var twist = Swerve.m_kinematics.toTwist2d(wheelDeltas);
         var simulatedGyroAngle = Rotation2d.fromRadians(getPose().getRotation().getRadians() + twist.dtheta);
 
-        addDriveData(simulatedGyroAngle, positions);
+        addDriveData(timestamp, simulatedGyroAngle, positions);
     }
 
-    /** Records a new drive movement with gyro. */
-    public void addDriveData(Rotation2d gyroAngle, SwerveModulePosition[] positions) {
+    /** Records a drive movement sampled at the given timestamp, with gyro. */
+    public void addDriveData(double timestamp, Rotation2d gyroAngle, SwerveModulePosition[] positions) {
         for (int i = 0; i < 4; i++) {
             m_lastModulePositions[i] = positions[i];
         }
-        m_poseEstimator.updateWithTime(MathSharedStore.getTimestamp(), gyroAngle, positions);
+        m_poseEstimator.updateWithTime(timestamp, gyroAngle, positions);
     }
 
     public void addVisionData(List<TimestampedVisionUpdate> visionData) {
@@ -114,7 +130,7 @@ public class RobotStateEstimator extends VirtualSubsystem {
     }
 
     private void updateFieldWidget() {
-        SwerveModuleState[] moduleStates = m_swerve.getSwerveSetpoint().moduleStates;
+        SwerveModuleState[] moduleStates = RobotContainer.m_swerve.getSwerveSetpoint().moduleStates;
         Pose2d robotPose = getPose();
 
         for (int i = 0; i < modulePoses.length; i++) {
@@ -0,0 +1,265 @@
+package frc.robot.util;
+
+/**
+ * Strategy for the bracketed root searches in {@link SwerveSetpointGenerator}. A search runs along
+ * the line from (x_0, y_0) to (x_1, y_1) and returns the interpolant s in [0, 1] at which the
+ * function crosses zero. Implementations keep the number of iterations (function evaluations) used
+ * by the last search so the strategies can be compared.
+ */
+public interface RootFinder {
+
+    @FunctionalInterface
+    public interface Function2d {
+        double f(double x, double y);
+    }
+
+    /**
+     * Find the interpolant at which func crosses zero between the two points.
+     *
+     * @param func The function to find the root of.
+     * @param tolerance Stop once |f(s)| is within this tolerance.
+     * @param max_iterations Iteration cap for the search.
+     * @return The interpolant s in [0, 1].
+     */
+    double findRoot(
+            Function2d func,
+            double x_0,
+            double y_0,
+            double f_0,
+            double x_1,
+            double y_1,
+            double f_1,
+            double tolerance,
+            int max_iterations);
+
+    /** @return The number of function evaluations used by the last call to findRoot. */
+    int getLastIterations();
+
+    public static final double kEpsilon = 1e-9;
+
+    public static boolean epsilonEquals(double a, double b) {
+        return Util.epsilonEquals(a, b, kEpsilon);
+    }
+
+    /** Available root finding strategies. */
+    public enum Type {
+        REGULA_FALSI, ILLINOIS, ITP;
+
+        public RootFinder create() {
+            switch (this) {
+                case ILLINOIS:
+                    return new Illinois();
+                case ITP:
+                    return new ITP();
+                case REGULA_FALSI:
+                default:
+                    return new RegulaFalsi();
+            }
+        }
+    }
+
+    /** 254's recursive regula falsi search. Always narrows towards the bracket end it lands in. */
+    public static class RegulaFalsi implements RootFinder {
+        private int m_iterations = 0;
+
+        @Override
+        public double findRoot(
+                Function2d func,
+                double x_0,
+                double y_0,
+                double f_0,
+                double x_1,
+                double y_1,
+                double f_1,
+                double tolerance,
+                int max_iterations) {
+            m_iterations = 0;
+            return findRootRegula(func, x_0, y_0, f_0, x_1, y_1, f_1, tolerance, max_iterations);
+        }
+
+        private double findRootRegula(
+                Function2d func,
+                double x_0,
+                double y_0,
+                double f_0,
+                double x_1,
+                double y_1,
+                double f_1,
+                double tolerance,
+                int iterations_left) {
+            if (iterations_left < 0 || epsilonEquals(f_0, f_1)) {
+                return 1.0;
+            }
+            var s_guess = Math.max(0.0, Math.min(1.0, -f_0 / (f_1 - f_0)));
+            var x_guess = (x_1 - x_0) * s_guess + x_0;
+            var y_guess = (y_1 - y_0) * s_guess + y_0;
+            var f_guess = func.f(x_guess, y_guess);
+            m_iterations++;
+            if (Math.abs(f_guess) <= tolerance) {
+                return s_guess;
+            }
+            if (Math.signum(f_0) == Math.signum(f_guess)) {
+                // 0 and guess on same side of root, so use upper bracket.
+                return s_guess
+                        + (1.0 - s_guess)
+                                * findRootRegula(func, x_guess, y_guess, f_guess, x_1, y_1, f_1,
+                                        tolerance, iterations_left - 1);
+            } else {
+                // Use lower bracket.
+                return s_guess
+                        * findRootRegula(func, x_0, y_0, f_0, x_guess, y_guess, f_guess,
+                                tolerance, iterations_left - 1);
+            }
+        }
+
+        @Override
+        public int getLastIterations() {
+            return m_iterations;
+        }
+    }
+
+    /**
+     * Illinois variant of regula falsi. Whenever the same bracket end is retained twice in a row its
+     * function value is halved, which stops the search from stalling on one side of the root.
+     */
+    public static class Illinois implements RootFinder {
+        private int m_iterations = 0;
+
+        @Override
+        public double findRoot(
+                Function2d func,
+                double x_0,
+                double y_0,
+                double f_0,
+                double x_1,
+                double y_1,
+                double f_1,
+                double tolerance,
+                int max_iterations) {
+            m_iterations = 0;
+            if (epsilonEquals(f_0, f_1)) {
+                return 1.0;
+            }
+
+            double a = 0.0;
+            double f_a = f_0;
+            double b = 1.0;
+            double f_b = f_1;
+            double s = 1.0;
+            int side = 0;
+            while (m_iterations < max_iterations) {
+                if (epsilonEquals(f_a, f_b)) {
+                    break;
+                }
+                s = Math.max(a, Math.min(b, (a * f_b - b * f_a) / (f_b - f_a)));
+                double f_s = func.f((x_1 - x_0) * s + x_0, (y_1 - y_0) * s + y_0);
+                m_iterations++;
+                if (Math.abs(f_s) <= tolerance) {
+                    break;
+                }
+                if (Math.signum(f_s) == Math.signum(f_b)) {
+                    b = s;
+                    f_b = f_s;
+                    if (side == -1) {
+                        f_a *= 0.5;
+                    }
+                    side = -1;
+                } else {
+                    a = s;
+                    f_a = f_s;
+                    if (side == 1) {
+                        f_b *= 0.5;
+                    }
+                    side = 1;
+                }
+            }
+            return s;
+        }
+
+        @Override
+        public int getLastIterations() {
+            return m_iterations;
+        }
+    }
+
+    /**
+     * Interpolate-Truncate-Project search. Takes the regula falsi guess, pulls it towards the
+     * bisection midpoint and projects it into a shrinking window around the midpoint, so it keeps
+     * the superlinear convergence of regula falsi with the worst case of bisection.
+     */
+    public static class ITP implements RootFinder {
+        private static final double kappa1 = 0.2;
+        private static final int n0 = 1;
+        // Width of the final bracket in s.
+        private static final double kIntervalTolerance = 1e-4;
+
+        private int m_iterations = 0;
+
+        @Override
+        public double findRoot(
+                Function2d func,
+                double x_0,
+                double y_0,
+                double f_0,
+                double x_1,
+                double y_1,
+                double f_1,
+                double tolerance,
+                int max_iterations) {
+            m_iterations = 0;
+            if (epsilonEquals(f_0, f_1)) {
+                return 1.0;
+            }
+
+            // Orient the function so that it is negative at a and positive at b.
+            final double sign = f_0 < f_1 ? 1.0 : -1.0;
+            double a = 0.0;
+            double f_a = sign * f_0;
+            double b = 1.0;
+            double f_b = sign * f_1;
+            if (f_a >= 0.0 || f_b <= 0.0) {
+                // Not a bracket, fall back to the regula falsi guess.
+                return Math.max(0.0, Math.min(1.0, -f_0 / (f_1 - f_0)));
+            }
+
+            final int n_half = (int) Math.ceil(Math.log(1.0 / (2.0 * kIntervalTolerance)) / Math.log(2.0));
+            final int n_max = n_half + n0;
+            double s;
+            int j = 0;
+            while (b - a > 2.0 * kIntervalTolerance && m_iterations < max_iterations) {
+                final double width = b - a;
+                final double x_half = 0.5 * (a + b);
+                final double r = Math.scalb(kIntervalTolerance, n_max - j) - 0.5 * width;
+                final double delta = kappa1 * width * width;
+
+                // Interpolate
+                final double x_f = (f_b * a - f_a * b) / (f_b - f_a);
+                // Truncate
+                final double sigma = Math.signum(x_half - x_f);
+                final double x_t = delta <= Math.abs(x_half - x_f) ? x_f + sigma * delta : x_half;
+                // Project
+                s = Math.abs(x_t - x_half) <= r ? x_t : x_half - sigma * r;
+
+                final double f_s = sign * func.f((x_1 - x_0) * s + x_0, (y_1 - y_0) * s + y_0);
+                m_iterations++;
+                if (Math.abs(f_s) <= tolerance) {
+                    return s;
+                }
+                if (f_s > 0.0) {
+                    b = s;
+                    f_b = f_s;
+                } else {
+                    a = s;
+                    f_a = f_s;
+                }
+                j++;
+            }
+            return 0.5 * (a + b);
+        }
+
+        @Override
+        public int getLastIterations() {
+            return m_iterations;
+        }
+    }
+}
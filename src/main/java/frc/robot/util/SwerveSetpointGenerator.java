@@ -8,6 +8,7 @@ import edu.wpi.first.math.kinematics.SwerveModuleState;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import frc.robot.util.RootFinder.Function2d;
 
 /**
  * This is 254s SwerveSetpointGenerator but modified to use WPILibs Geometry classes and an
@@ -20,16 +21,102 @@ public class SwerveSetpointGenerator {
         public double kMaxDriveAcceleration; // m/s^2
         public double kMaxAzimuthVelocity; // rad/s
         public double kMaxAngularVelocity;
+        public DriveLimitSolver kDriveLimitSolver = DriveLimitSolver.QUADRATIC;
+        public RootFinder.Type kSteeringRootFinder = RootFinder.Type.REGULA_FALSI;
+        // Steering searches stop once the heading is within this many radians of the limit. Zero
+        // runs every search to its iteration cap, as 254's original does.
+        public double kSteeringTolerance = 0.0; // rad
+    }
+
+    /** How the drive wheel acceleration limit is solved for each module. */
+    public enum DriveLimitSolver {
+        /** Recursive regula falsi on |v(s)|, capped at a fixed number of iterations. */
+        REGULA_FALSI,
+        /** Closed form root of |v(s)|^2 = v_max^2, which is a quadratic in s. */
+        QUADRATIC
     }
 
     private final SwerveDriveKinematics _kinematics;
     private final Translation2d[] _modulePositions;
     private final double EPSILON = 1e-9;
 
+    private final RootFinder[] _steeringRootFinders;
+    private final RootFinder _driveRootFinder = new RootFinder.RegulaFalsi();
+    private int _lastSteeringIterations = 0;
+
+    // Reusable root finding functions so the limit searches don't allocate a capturing lambda per
+    // module per loop.
+    private final SteeringFunction _steeringFunction = new SteeringFunction();
+    private final DriveFunction _driveFunction = new DriveFunction();
+
+    // Scratch buffers for the allocation-free generateSetpoint. Module positions are cached as raw
+    // doubles and every rotation is carried around as a (cos, sin) pair instead of a Rotation2d.
+    private final double[] _moduleX;
+    private final double[] _moduleY;
+    private final double[] _prevSpeed;
+    private final double[] _prevCos;
+    private final double[] _prevSin;
+    private final double[] _prevVx;
+    private final double[] _prevVy;
+    private final double[] _prevHeadingCos;
+    private final double[] _prevHeadingSin;
+    private final double[] _desiredSpeed;
+    private final double[] _desiredCos;
+    private final double[] _desiredSin;
+    private final double[] _desiredVx;
+    private final double[] _desiredVy;
+    private final double[] _desiredHeadingCos;
+    private final double[] _desiredHeadingSin;
+    private final boolean[] _hasOverride;
+    private final double[] _overrideCos;
+    private final double[] _overrideSin;
+    private final double[] _retSpeed;
+    private final double[] _retCos;
+    private final double[] _retSin;
+    private double _prevChassisVx;
+    private double _prevChassisVy;
+    private double _prevChassisOmega;
+    private double _retChassisVx;
+    private double _retChassisVy;
+    private double _retChassisOmega;
+
     public SwerveSetpointGenerator(
             final SwerveDriveKinematics kinematics, final Translation2d[] modulePositions) {
         _modulePositions = modulePositions;
         _kinematics = kinematics;
+
+        _steeringRootFinders = new RootFinder[RootFinder.Type.values().length];
+        for (var type : RootFinder.Type.values()) {
+            _steeringRootFinders[type.ordinal()] = type.create();
+        }
+
+        final int numModules = modulePositions.length;
+        _moduleX = new double[numModules];
+        _moduleY = new double[numModules];
+        for (int i = 0; i < numModules; ++i) {
+            _moduleX[i] = modulePositions[i].getX();
+            _moduleY[i] = modulePositions[i].getY();
+        }
+        _prevSpeed = new double[numModules];
+        _prevCos = new double[numModules];
+        _prevSin = new double[numModules];
+        _prevVx = new double[numModules];
+        _prevVy = new double[numModules];
+        _prevHeadingCos = new double[numModules];
+        _prevHeadingSin = new double[numModules];
+        _desiredSpeed = new double[numModules];
+        _desiredCos = new double[numModules];
+        _desiredSin = new double[numModules];
+        _desiredVx = new double[numModules];
+        _desiredVy = new double[numModules];
+        _desiredHeadingCos = new double[numModules];
+        _desiredHeadingSin = new double[numModules];
+        _hasOverride = new boolean[numModules];
+        _overrideCos = new double[numModules];
+        _overrideSin = new double[numModules];
+        _retSpeed = new double[numModules];
+        _retCos = new double[numModules];
+        _retSin = new double[numModules];
     }
 
     protected boolean epsilonEquals(double a, double b) {
@@ -51,54 +138,30 @@ public class SwerveSetpointGenerator {
         }
     }
 
-    @FunctionalInterface
-    private interface Function2d {
-        double f(double x, double y);
-    }
+    /** Heading of the (x, y) vector, unwrapped around ref and shifted by offset. */
+    private class SteeringFunction implements Function2d {
+        double ref;
+        double offset;
 
-    private double findRootRegula(
-            Function2d func,
-            double x_0,
-            double y_0,
-            double f_0,
-            double x_1,
-            double y_1,
-            double f_1,
-            int iterations_left) {
-        if (iterations_left < 0 || epsilonEquals(f_0, f_1)) {
-            return 1.0;
-        }
-        var s_guess = Math.max(0.0, Math.min(1.0, -f_0 / (f_1 - f_0)));
-        var x_guess = (x_1 - x_0) * s_guess + x_0;
-        var y_guess = (y_1 - y_0) * s_guess + y_0;
-        var f_guess = func.f(x_guess, y_guess);
-        if (Math.signum(f_0) == Math.signum(f_guess)) {
-            // 0 and guess on same side of root, so use upper bracket.
-            return s_guess
-                    + (1.0 - s_guess)
-                            * findRootRegula(func, x_guess, y_guess, f_guess, x_1, y_1, f_1, iterations_left - 1);
-        } else {
-            // Use lower bracket.
-            return s_guess
-                    * findRootRegula(func, x_0, y_0, f_0, x_guess, y_guess, f_guess, iterations_left - 1);
+        @Override
+        public double f(double x, double y) {
+            return unwrapAngle(ref, Math.atan2(y, x)) - offset;
         }
     }
 
-    private double findRoot(
-            Function2d func,
-            double x_0,
-            double y_0,
-            double f_0,
-            double x_1,
-            double y_1,
-            double f_1,
-            int iterations_left) {
-        // return findRootIllinois(func, x_0, y_0, f_0, x_1, y_1, f_1, iterations_left);
-        //    return findRootITP(func, x_0, y_0, f_0, x_1, y_1, f_1, iterations_left);
-        return findRootRegula(func, x_0, y_0, f_0, x_1, y_1, f_1, iterations_left);
+    /** Magnitude of the (x, y) vector shifted by offset. */
+    private static class DriveFunction implements Function2d {
+        double offset;
+
+        @Override
+        public double f(double x, double y) {
+            return Math.hypot(x, y) - offset;
+        }
     }
 
     protected double findSteeringMaxS(
+            final RootFinder rootFinder,
+            double tolerance,
             double x_0,
             double y_0,
             double f_0,
@@ -114,8 +177,21 @@ public class SwerveSetpointGenerator {
             return 1.0;
         }
         double offset = f_0 + Math.signum(diff) * max_deviation;
-        Function2d func = (x, y) -> unwrapAngle(f_0, Math.atan2(y, x)) - offset;
-        return findRoot(func, x_0, y_0, f_0 - offset, x_1, y_1, f_1 - offset, max_iterations);
+        _steeringFunction.ref = f_0;
+        _steeringFunction.offset = offset;
+        double s =
+                rootFinder.findRoot(
+                        _steeringFunction,
+                        x_0,
+                        y_0,
+                        f_0 - offset,
+                        x_1,
+                        y_1,
+                        f_1 - offset,
+                        tolerance,
+                        max_iterations);
+        _lastSteeringIterations += rootFinder.getLastIterations();
+        return s;
     }
 
     protected double findDriveMaxS(
@@ -133,8 +209,81 @@ public class SwerveSetpointGenerator {
             return 1.0;
         }
         double offset = f_0 + Math.signum(diff) * max_vel_step;
-        Function2d func = (x, y) -> Math.hypot(x, y) - offset;
-        return findRoot(func, x_0, y_0, f_0 - offset, x_1, y_1, f_1 - offset, max_iterations);
+        _driveFunction.offset = offset;
+        return _driveRootFinder.findRoot(
+                _driveFunction, x_0, y_0, f_0 - offset, x_1, y_1, f_1 - offset, 0.0, max_iterations);
+    }
+
+    /**
+     * Closed form equivalent of findDriveMaxS. The wheel speed along the interpolation is
+     * |v(s)|^2 = ((x_1-x_0)*s+x_0)^2+((y_1-y_0)*s+y_0)^2, so the s at which the wheel hits its
+     * allowed speed change is a root of a quadratic. Everything is compared on v^2; the only square
+     * roots left are the starting wheel speed and the discriminant.
+     */
+    protected double findDriveMaxSQuadratic(
+            double x_0, double y_0, double x_1, double y_1, double max_vel_step) {
+        final double v0Squared = x_0 * x_0 + y_0 * y_0;
+        final double v1Squared = x_1 * x_1 + y_1 * y_1;
+        final double v0 = Math.sqrt(v0Squared);
+
+        final double target;
+        final boolean accelerating;
+        final double upper = v0 + max_vel_step;
+        final double lower = v0 - max_vel_step;
+        if (v1Squared > upper * upper) {
+            target = upper;
+            accelerating = true;
+        } else if (lower > 0.0 && v1Squared < lower * lower) {
+            target = lower;
+            accelerating = false;
+        } else {
+            // Can go all the way to s=1.
+            return 1.0;
+        }
+
+        final double dx = x_1 - x_0;
+        final double dy = y_1 - y_0;
+        final double a = dx * dx + dy * dy;
+        if (a < EPSILON) {
+            return 1.0;
+        }
+        final double b = 2.0 * (x_0 * dx + y_0 * dy);
+        final double c = v0Squared - target * target;
+
+        // Numerically stable form of the quadratic formula.
+        final double sqrtDiscriminant = Math.sqrt(Math.max(0.0, b * b - 4.0 * a * c));
+        final double q = -0.5 * (b + Math.copySign(sqrtDiscriminant, b));
+        if (q == 0.0) {
+            return 0.0;
+        }
+        final double r1 = q / a;
+        final double r2 = c / q;
+        // Speeding up, |v(0)| is below the target so the crossing is the larger root. Slowing down,
+        // |v(0)| is above the target so the crossing is the smaller one.
+        final double s = accelerating ? Math.max(r1, r2) : Math.min(r1, r2);
+        return Math.max(0.0, Math.min(1.0, s));
+    }
+
+    private double driveMaxS(
+            final KinematicLimits limits,
+            double x_0,
+            double y_0,
+            double x_1,
+            double y_1,
+            double max_vel_step) {
+        if (limits.kDriveLimitSolver == DriveLimitSolver.QUADRATIC) {
+            return findDriveMaxSQuadratic(x_0, y_0, x_1, y_1, max_vel_step);
+        }
+        final int kMaxIterations = 10;
+        return findDriveMaxS(
+                x_0,
+                y_0,
+                Math.hypot(x_0, y_0),
+                x_1,
+                y_1,
+                Math.hypot(x_1, y_1),
+                max_vel_step,
+                kMaxIterations);
     }
 
     /**
@@ -155,6 +304,7 @@ public class SwerveSetpointGenerator {
             ChassisSpeeds desiredState,
             double dt) {
         final Translation2d[] modules = _modulePositions;
+        _lastSteeringIterations = 0;
 
         SwerveModuleState[] desiredModuleState = _kinematics.toSwerveModuleStates(desiredState);
         // Make sure desiredState respects velocity limits.
@@ -293,6 +443,8 @@ public class SwerveSetpointGenerator {
             final int kMaxIterations = 8;
             double s =
                     findSteeringMaxS(
+                            _steeringRootFinders[limits.kSteeringRootFinder.ordinal()],
+                            limits.kSteeringTolerance,
                             prev_vx[i],
                             prev_vy[i],
                             prev_heading[i].getRadians(),
@@ -318,21 +470,8 @@ public class SwerveSetpointGenerator {
             // Find the max s for this drive wheel. Search on the interval between 0 and min_s, because we
             // already know we can't go faster
             // than that.
-            // TODO(for efficiency, do all this on v^2 to save a bunch of sqrts)
-            // TODO(be smarter about root finding, since this is just a quadratic in s:
-            // ((xf-x0)*s+x0)^2+((yf-y0)*s+y0)^2)
-            final int kMaxIterations = 10;
             double s =
-                    min_s
-                            * findDriveMaxS(
-                                    prev_vx[i],
-                                    prev_vy[i],
-                                    Math.hypot(prev_vx[i], prev_vy[i]),
-                                    vx_min_s,
-                                    vy_min_s,
-                                    Math.hypot(vx_min_s, vy_min_s),
-                                    max_vel_step,
-                                    kMaxIterations);
+                    min_s * driveMaxS(limits, prev_vx[i], prev_vy[i], vx_min_s, vy_min_s, max_vel_step);
             min_s = Math.min(min_s, s);
         }
 
@@ -360,4 +499,290 @@ public class SwerveSetpointGenerator {
         }
         return new SwerveSetpoint(retSpeeds, retStates);
     }
+
+    /**
+     * @return The number of steering limit function evaluations (atan2 calls) used by the last
+     *     generateSetpoint call, summed over all modules.
+     */
+    public int getLastSteeringIterations() {
+        return _lastSteeringIterations;
+    }
+
+    /**
+     * Allocation-free version of {@link #generateSetpoint(KinematicLimits, SwerveSetpoint,
+     * ChassisSpeeds, double)}. All intermediate values live in primitive scratch buffers owned by
+     * this generator and the result is written into outSetpoint. It is safe to pass the same object
+     * as prevSetpoint and outSetpoint.
+     *
+     * <p>Rotation2d is immutable, so a module's angle object is only replaced when its heading
+     * actually changes.
+     *
+     * @param limits The kinematic limits to respect for this setpoint.
+     * @param prevSetpoint The previous setpoint motion.
+     * @param desiredState The desired state of motion.
+     * @param dt The loop time.
+     * @param outSetpoint Caller-owned setpoint the result is written into.
+     */
+    public void generateSetpoint(
+            final KinematicLimits limits,
+            final SwerveSetpoint prevSetpoint,
+            final ChassisSpeeds desiredState,
+            double dt,
+            final SwerveSetpoint outSetpoint) {
+        _lastSteeringIterations = 0;
+        // Copy everything out of prevSetpoint before anything is written to outSetpoint.
+        _prevChassisVx = prevSetpoint.chassisSpeeds.vxMetersPerSecond;
+        _prevChassisVy = prevSetpoint.chassisSpeeds.vyMetersPerSecond;
+        _prevChassisOmega = prevSetpoint.chassisSpeeds.omegaRadiansPerSecond;
+        for (int i = 0; i < _moduleX.length; ++i) {
+            _prevSpeed[i] = prevSetpoint.moduleStates[i].speedMetersPerSecond;
+            _prevCos[i] = prevSetpoint.moduleStates[i].angle.getCos();
+            _prevSin[i] = prevSetpoint.moduleStates[i].angle.getSin();
+        }
+
+        computeSetpoint(
+                limits,
+                desiredState.vxMetersPerSecond,
+                desiredState.vyMetersPerSecond,
+                desiredState.omegaRadiansPerSecond,
+                dt);
+
+        if (outSetpoint.chassisSpeeds == null) {
+            outSetpoint.chassisSpeeds = new ChassisSpeeds();
+        }
+        outSetpoint.chassisSpeeds.vxMetersPerSecond = _retChassisVx;
+        outSetpoint.chassisSpeeds.vyMetersPerSecond = _retChassisVy;
+        outSetpoint.chassisSpeeds.omegaRadiansPerSecond = _retChassisOmega;
+        if (outSetpoint.moduleStates == null || outSetpoint.moduleStates.length != _moduleX.length) {
+            outSetpoint.moduleStates = new SwerveModuleState[_moduleX.length];
+        }
+        for (int i = 0; i < _moduleX.length; ++i) {
+            if (outSetpoint.moduleStates[i] == null) {
+                outSetpoint.moduleStates[i] = new SwerveModuleState();
+            }
+            setModuleState(outSetpoint.moduleStates[i], _retSpeed[i], _retCos[i], _retSin[i]);
+        }
+    }
+
+    private void computeSetpoint(
+            final KinematicLimits limits,
+            double desiredVx,
+            double desiredVy,
+            double desiredOmega,
+            double dt) {
+        final int numModules = _moduleX.length;
+
+        toModuleStates(desiredVx, desiredVy, desiredOmega, _desiredSpeed, _desiredCos, _desiredSin);
+        // Make sure desiredState respects velocity limits. Desaturation scales every module by the
+        // same factor, so the chassis speeds scale by that factor too.
+        if (limits.kMaxDriveVelocity > 0.0) {
+            double maxSpeed = 0.0;
+            for (int i = 0; i < numModules; ++i) {
+                maxSpeed = Math.max(maxSpeed, Math.abs(_desiredSpeed[i]));
+            }
+            if (maxSpeed > limits.kMaxDriveVelocity) {
+                final double scale = limits.kMaxDriveVelocity / maxSpeed;
+                for (int i = 0; i < numModules; ++i) {
+                    _desiredSpeed[i] *= scale;
+                }
+                desiredVx *= scale;
+                desiredVy *= scale;
+                desiredOmega *= scale;
+            }
+        }
+
+        // Special case: desiredState is a complete stop. In this case, module angle is arbitrary, so
+        // just use the previous angle.
+        final boolean desiredIsStopped = isStopped(desiredVx, desiredVy, desiredOmega);
+        boolean need_to_steer = true;
+        if (desiredIsStopped) {
+            need_to_steer = false;
+            for (int i = 0; i < numModules; ++i) {
+                _desiredCos[i] = _prevCos[i];
+                _desiredSin[i] = _prevSin[i];
+                _desiredSpeed[i] = 0.0;
+            }
+        }
+
+        // For each module, compute local Vx and Vy vectors.
+        boolean all_modules_should_flip = true;
+        for (int i = 0; i < numModules; ++i) {
+            _prevVx[i] = _prevCos[i] * _prevSpeed[i];
+            _prevVy[i] = _prevSin[i] * _prevSpeed[i];
+            final double prevFlip = _prevSpeed[i] < 0.0 ? -1.0 : 1.0;
+            _prevHeadingCos[i] = prevFlip * _prevCos[i];
+            _prevHeadingSin[i] = prevFlip * _prevSin[i];
+
+            _desiredVx[i] = _desiredCos[i] * _desiredSpeed[i];
+            _desiredVy[i] = _desiredSin[i] * _desiredSpeed[i];
+            final double desiredFlip = _desiredSpeed[i] < 0.0 ? -1.0 : 1.0;
+            _desiredHeadingCos[i] = desiredFlip * _desiredCos[i];
+            _desiredHeadingSin[i] = desiredFlip * _desiredSin[i];
+
+            // |required rotation| < pi/2 is the same as the cosine of the rotation being positive.
+            if (all_modules_should_flip
+                    && _prevHeadingCos[i] * _desiredHeadingCos[i]
+                                    + _prevHeadingSin[i] * _desiredHeadingSin[i]
+                            > 0.0) {
+                all_modules_should_flip = false;
+            }
+        }
+
+        if (all_modules_should_flip
+                && !isStopped(_prevChassisVx, _prevChassisVy, _prevChassisOmega)
+                && !desiredIsStopped) {
+            // It will (likely) be faster to stop the robot, rotate the modules in place to the complement
+            // of the desired angle, and accelerate again.
+            computeSetpoint(limits, 0.0, 0.0, 0.0, dt);
+            return;
+        }
+
+        // Compute the deltas between start and goal.
+        final double dx = desiredVx - _prevChassisVx;
+        final double dy = desiredVy - _prevChassisVy;
+        final double dtheta = desiredOmega - _prevChassisOmega;
+
+        // 's' interpolates between start and goal. At 0, we are at prevState and at 1, we are at
+        // desiredState.
+        double min_s = 1.0;
+
+        // Enforce steering velocity limits, remembering the steering angle to command for stopped
+        // modules.
+        final double max_theta_step = dt * limits.kMaxAzimuthVelocity;
+        for (int i = 0; i < numModules; ++i) {
+            _hasOverride[i] = false;
+            if (!need_to_steer) {
+                setOverride(i, _prevCos[i], _prevSin[i]);
+                continue;
+            }
+            if (epsilonEquals(_prevSpeed[i], 0.0)) {
+                if (epsilonEquals(_desiredSpeed[i], 0.0)) {
+                    // Goal angle doesn't matter. Just leave module at its current angle.
+                    setOverride(i, _prevCos[i], _prevSin[i]);
+                    continue;
+                }
+
+                double necessaryCos = _prevCos[i] * _desiredCos[i] + _prevSin[i] * _desiredSin[i];
+                double necessarySin = _prevCos[i] * _desiredSin[i] - _prevSin[i] * _desiredCos[i];
+                if (necessaryCos < 0.0) {
+                    necessaryCos = -necessaryCos;
+                    necessarySin = -necessarySin;
+                }
+                final double necessaryRotation = Math.atan2(necessarySin, necessaryCos);
+                final double numStepsNeeded = Math.abs(necessaryRotation) / max_theta_step;
+
+                if (numStepsNeeded <= 1.0) {
+                    // Steer directly to goal angle.
+                    setOverride(i, _desiredCos[i], _desiredSin[i]);
+                    // Don't limit the global min_s;
+                    continue;
+                } else {
+                    // Adjust steering by max_theta_step.
+                    final double step = Math.signum(necessaryRotation) * max_theta_step;
+                    final double stepCos = Math.cos(step);
+                    final double stepSin = Math.sin(step);
+                    setOverride(
+                            i,
+                            _prevCos[i] * stepCos - _prevSin[i] * stepSin,
+                            _prevCos[i] * stepSin + _prevSin[i] * stepCos);
+                    min_s = 0.0;
+                    continue;
+                }
+            }
+            if (min_s == 0.0) {
+                // s can't get any lower. Save some CPU.
+                continue;
+            }
+
+            final int kMaxIterations = 8;
+            double s =
+                    findSteeringMaxS(
+                            _steeringRootFinders[limits.kSteeringRootFinder.ordinal()],
+                            limits.kSteeringTolerance,
+                            _prevVx[i],
+                            _prevVy[i],
+                            Math.atan2(_prevHeadingSin[i], _prevHeadingCos[i]),
+                            _desiredVx[i],
+                            _desiredVy[i],
+                            Math.atan2(_desiredHeadingSin[i], _desiredHeadingCos[i]),
+                            max_theta_step,
+                            kMaxIterations);
+            min_s = Math.min(min_s, s);
+        }
+
+        // Enforce drive wheel acceleration limits.
+        final double max_vel_step = dt * limits.kMaxDriveAcceleration;
+        for (int i = 0; i < numModules; ++i) {
+            if (min_s == 0.0) {
+                // No need to carry on.
+                break;
+            }
+            double vx_min_s =
+                    min_s == 1.0 ? _desiredVx[i] : (_desiredVx[i] - _prevVx[i]) * min_s + _prevVx[i];
+            double vy_min_s =
+                    min_s == 1.0 ? _desiredVy[i] : (_desiredVy[i] - _prevVy[i]) * min_s + _prevVy[i];
+            double s =
+                    min_s
+                            * driveMaxS(
+                                    limits, _prevVx[i], _prevVy[i], vx_min_s, vy_min_s, max_vel_step);
+            min_s = Math.min(min_s, s);
+        }
+
+        _retChassisVx = _prevChassisVx + min_s * dx;
+        _retChassisVy = _prevChassisVy + min_s * dy;
+        _retChassisOmega = _prevChassisOmega + min_s * dtheta;
+        toModuleStates(_retChassisVx, _retChassisVy, _retChassisOmega, _retSpeed, _retCos, _retSin);
+        for (int i = 0; i < numModules; ++i) {
+            if (_hasOverride[i]) {
+                if (_retCos[i] * _overrideCos[i] + _retSin[i] * _overrideSin[i] < 0.0) {
+                    _retSpeed[i] *= -1.0;
+                }
+                _retCos[i] = _overrideCos[i];
+                _retSin[i] = _overrideSin[i];
+            }
+            if (_prevCos[i] * _retCos[i] + _prevSin[i] * _retSin[i] < 0.0) {
+                _retCos[i] = -_retCos[i];
+                _retSin[i] = -_retSin[i];
+                _retSpeed[i] *= -1.0;
+            }
+        }
+    }
+
+    /** Inverse kinematics about the robot center, matching SwerveDriveKinematics. */
+    private void toModuleStates(
+            double vx, double vy, double omega, double[] speeds, double[] cos, double[] sin) {
+        for (int i = 0; i < _moduleX.length; ++i) {
+            final double moduleVx = vx - omega * _moduleY[i];
+            final double moduleVy = vy + omega * _moduleX[i];
+            final double speed = Math.hypot(moduleVx, moduleVy);
+            speeds[i] = speed;
+            if (speed > 1e-6) {
+                cos[i] = moduleVx / speed;
+                sin[i] = moduleVy / speed;
+            } else {
+                cos[i] = 1.0;
+                sin[i] = 0.0;
+            }
+        }
+    }
+
+    private void setOverride(int module, double cos, double sin) {
+        _hasOverride[module] = true;
+        _overrideCos[module] = cos;
+        _overrideSin[module] = sin;
+    }
+
+    private boolean isStopped(double vx, double vy, double omega) {
+        // Same tolerance as Twist2d.equals(IDENTITY)
+        return Math.abs(vx) < EPSILON && Math.abs(vy) < EPSILON && Math.abs(omega) < EPSILON;
+    }
+
+    private void setModuleState(SwerveModuleState state, double speed, double cos, double sin) {
+        state.speedMetersPerSecond = speed;
+        if (state.angle == null
+                || !epsilonEquals(state.angle.getCos(), cos)
+                || !epsilonEquals(state.angle.getSin(), sin)) {
+            state.angle = new Rotation2d(cos, sin);
+        }
+    }
 }
\ No newline at end of file
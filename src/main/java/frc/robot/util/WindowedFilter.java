@@ -0,0 +1,11 @@
+package frc.robot.util;
+
+/** A filter over the most recent samples added to it. */
+public interface WindowedFilter {
+    void add(double value);
+
+    /** @return The filtered value, NaN if nothing has been added since the last clear. */
+    double get();
+
+    void clear();
+}
@@ -0,0 +1,151 @@
+package frc.lib.team5557.factory;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.revrobotics.CANSparkMax.IdleMode;
+
+import frc.lib.team5557.factory.BurnManager.FlashIOSim;
+import frc.lib.team5557.factory.SparkMaxFactory.PIDConfiguration;
+import frc.lib.team5557.factory.SparkMaxFactory.SparkMaxConfiguration;
+
+/**
+ * Runs the burn logic against a fake controller and a temporary hash file. Each new BurnManager on
+ * the same file stands in for a reboot.
+ */
+public class BurnManagerTest {
+    private static final int kDeviceId = 12;
+
+    @TempDir
+    Path m_tempDir;
+
+    private Path m_hashFile;
+    private FlashIOSim m_device;
+
+    @BeforeEach
+    public void setup() {
+        m_hashFile = m_tempDir.resolve("sparkmax_config_hashes.properties");
+        m_device = new FlashIOSim();
+    }
+
+    private static SparkMaxConfiguration config(double currentLimit) {
+        SparkMaxConfiguration config = new SparkMaxConfiguration();
+        config.label = "Test";
+        config.kIdleMode = IdleMode.kBrake;
+        config.kSmartCurrentLimit = currentLimit;
+        config.kVoltageCompensation = 12.0;
+        return config;
+    }
+
+    /** Configures the device the way the factory and IOs do on one boot. */
+    private void boot(SparkMaxConfiguration config) {
+        BurnManager manager = new BurnManager(m_hashFile);
+        manager.restoreIfChanged(kDeviceId, config, m_device);
+        manager.burnIfChanged(kDeviceId, m_device);
+    }
+
+    @Test
+    public void firstBootRestoresAndBurns() {
+        BurnManager manager = new BurnManager(m_hashFile);
+
+        assertTrue(manager.restoreIfChanged(kDeviceId, config(40.0), m_device));
+        assertTrue(manager.shouldBurn(kDeviceId));
+        assertTrue(manager.burnIfChanged(kDeviceId, m_device));
+
+        assertEquals(1, m_device.restoreCount);
+        assertEquals(1, m_device.burnCount);
+        assertTrue(Files.exists(m_hashFile));
+    }
+
+    @Test
+    public void unchangedConfigSkipsRestoreAndBurn() {
+        boot(config(40.0));
+        m_device = new FlashIOSim();
+
+        BurnManager manager = new BurnManager(m_hashFile);
+        assertFalse(manager.restoreIfChanged(kDeviceId, config(40.0), m_device));
+        assertFalse(manager.shouldBurn(kDeviceId));
+        assertFalse(manager.burnIfChanged(kDeviceId, m_device));
+
+        assertEquals(0, m_device.restoreCount);
+        assertEquals(0, m_device.burnCount);
+    }
+
+    @Test
+    public void changedConfigBurnsAgain() {
+        boot(config(40.0));
+        m_device = new FlashIOSim();
+
+        BurnManager manager = new BurnManager(m_hashFile);
+        assertTrue(manager.restoreIfChanged(kDeviceId, config(30.0), m_device));
+        assertTrue(manager.burnIfChanged(kDeviceId, m_device));
+
+        assertEquals(1, m_device.restoreCount);
+        assertEquals(1, m_device.burnCount);
+
+        // The new configuration is what gets skipped from now on
+        m_device = new FlashIOSim();
+        boot(config(30.0));
+        assertEquals(0, m_device.restoreCount);
+        assertEquals(0, m_device.burnCount);
+    }
+
+    @Test
+    public void swappedControllerBurnsAgain() {
+        boot(config(40.0));
+        // A replacement controller on the same CAN ID still has the factory configuration
+        m_device = new FlashIOSim();
+        m_device.holdsConfiguration = false;
+
+        BurnManager manager = new BurnManager(m_hashFile);
+        assertTrue(manager.restoreIfChanged(kDeviceId, config(40.0), m_device));
+        assertTrue(manager.burnIfChanged(kDeviceId, m_device));
+
+        assertEquals(1, m_device.restoreCount);
+        assertEquals(1, m_device.burnCount);
+    }
+
+    @Test
+    public void ioSettingsAreHashed() {
+        SparkMaxConfiguration wrapped = config(40.0);
+        wrapped.kPositionWrappingMin = 0.0;
+        wrapped.kPositionWrappingMax = 1.0;
+        SparkMaxConfiguration converted = config(40.0);
+        converted.kPositionConversionFactor = 2.0;
+
+        assertEquals(BurnManager.hash(config(40.0)), BurnManager.hash(config(40.0)));
+        assertNotEquals(BurnManager.hash(config(40.0)), BurnManager.hash(converted));
+        // Wrapping only applies to controllers with a PID configuration
+        wrapped.pid = new PIDConfiguration();
+        SparkMaxConfiguration unwrapped = config(40.0);
+        unwrapped.pid = new PIDConfiguration();
+        assertNotEquals(BurnManager.hash(unwrapped), BurnManager.hash(wrapped));
+    }
+
+    @Test
+    public void cancelBurnLeavesHashUnsaved() {
+        BurnManager manager = new BurnManager(m_hashFile);
+        assertTrue(manager.restoreIfChanged(kDeviceId, config(40.0), m_device));
+        manager.cancelBurn(kDeviceId);
+
+        assertFalse(manager.shouldBurn(kDeviceId));
+        assertFalse(manager.burnIfChanged(kDeviceId, m_device));
+        assertEquals(0, m_device.burnCount);
+        assertFalse(Files.exists(m_hashFile));
+
+        // Nothing was saved, so the next boot restores and burns
+        m_device = new FlashIOSim();
+        boot(config(40.0));
+        assertEquals(1, m_device.restoreCount);
+        assertEquals(1, m_device.burnCount);
+    }
+}
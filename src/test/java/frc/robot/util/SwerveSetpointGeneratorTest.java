@@ -0,0 +1,136 @@
+package frc.robot.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Random;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import edu.wpi.first.math.kinematics.ChassisSpeeds;
+import edu.wpi.first.math.kinematics.SwerveDriveKinematics;
+import edu.wpi.first.math.kinematics.SwerveModuleState;
+import frc.robot.subsystems.swerve.SwerveConstants;
+import frc.robot.util.SwerveSetpointGenerator.DriveLimitSolver;
+import frc.robot.util.SwerveSetpointGenerator.KinematicLimits;
+
+/**
+ * Checks the allocation-free generateSetpoint against the original one. Both run from the same
+ * previous setpoint each loop over a fixed-seed sequence of desired speeds, so any difference shows
+ * up on the loop that caused it instead of compounding.
+ */
+public class SwerveSetpointGeneratorTest {
+    private static final long kSeed = 5557;
+    private static final int kLoops = 2000;
+    private static final double kDt = 0.02;
+    private static final double kTolerance = 1e-6;
+
+    private static final SwerveDriveKinematics kKinematics = new SwerveDriveKinematics(
+            SwerveConstants.kSwerveModuleLocations);
+
+    @ParameterizedTest
+    @EnumSource(RootFinder.Type.class)
+    public void inPlaceMatchesAllocating(RootFinder.Type steeringRootFinder) {
+        for (DriveLimitSolver driveLimitSolver : DriveLimitSolver.values()) {
+            KinematicLimits limits = new KinematicLimits();
+            limits.kMaxDriveVelocity = SwerveConstants.kPathFollowingLimits.kMaxDriveVelocity;
+            limits.kMaxDriveAcceleration = SwerveConstants.kPathFollowingLimits.kMaxDriveAcceleration;
+            limits.kMaxAzimuthVelocity = SwerveConstants.kPathFollowingLimits.kMaxAzimuthVelocity;
+            limits.kMaxAngularVelocity = SwerveConstants.kPathFollowingLimits.kMaxAngularVelocity;
+            limits.kDriveLimitSolver = driveLimitSolver;
+            limits.kSteeringRootFinder = steeringRootFinder;
+
+            compare(limits, false);
+            compare(limits, true);
+        }
+    }
+
+    /**
+     * @param aliased Whether the in-place overload writes over its own previous setpoint, the way
+     *        Swerve calls it.
+     */
+    private void compare(KinematicLimits limits, boolean aliased) {
+        SwerveSetpointGenerator allocating = new SwerveSetpointGenerator(kKinematics,
+                SwerveConstants.kSwerveModuleLocations);
+        SwerveSetpointGenerator inPlace = new SwerveSetpointGenerator(kKinematics,
+                SwerveConstants.kSwerveModuleLocations);
+        Random random = new Random(kSeed);
+
+        SwerveSetpoint prev = emptySetpoint();
+        SwerveSetpoint out = emptySetpoint();
+        for (int loop = 0; loop < kLoops; loop++) {
+            ChassisSpeeds desired = randomSpeeds(random);
+            if (aliased) {
+                out = copy(prev);
+            }
+
+            SwerveSetpoint expected = allocating.generateSetpoint(limits, prev, desired, kDt);
+            inPlace.generateSetpoint(limits, aliased ? out : prev, desired, kDt, out);
+
+            String context = limits.kDriveLimitSolver + "/" + limits.kSteeringRootFinder + " loop "
+                    + loop + (aliased ? " aliased" : "");
+            assertSetpointEquals(expected, out, context);
+            prev = expected;
+        }
+    }
+
+    /**
+     * Mostly driving, with stops and direction reversals mixed in since those take the special
+     * cases for stopped modules and flipped headings.
+     */
+    private static ChassisSpeeds randomSpeeds(Random random) {
+        double roll = random.nextDouble();
+        if (roll < 0.05) {
+            return new ChassisSpeeds();
+        }
+        double maxSpeed = SwerveConstants.kMaxSpeed;
+        double maxOmega = SwerveConstants.kMaxOmega;
+        if (roll < 0.15) {
+            // Pure rotation in place
+            return new ChassisSpeeds(0.0, 0.0, (random.nextDouble() * 2.0 - 1.0) * maxOmega);
+        }
+        return new ChassisSpeeds(
+                (random.nextDouble() * 2.0 - 1.0) * maxSpeed,
+                (random.nextDouble() * 2.0 - 1.0) * maxSpeed,
+                (random.nextDouble() * 2.0 - 1.0) * maxOmega);
+    }
+
+    private static void assertSetpointEquals(SwerveSetpoint expected, SwerveSetpoint actual,
+            String context) {
+        assertEquals(expected.chassisSpeeds.vxMetersPerSecond,
+                actual.chassisSpeeds.vxMetersPerSecond, kTolerance, context + " vx");
+        assertEquals(expected.chassisSpeeds.vyMetersPerSecond,
+                actual.chassisSpeeds.vyMetersPerSecond, kTolerance, context + " vy");
+        assertEquals(expected.chassisSpeeds.omegaRadiansPerSecond,
+                actual.chassisSpeeds.omegaRadiansPerSecond, kTolerance, context + " omega");
+
+        for (int i = 0; i < expected.moduleStates.length; i++) {
+            SwerveModuleState e = expected.moduleStates[i];
+            SwerveModuleState a = actual.moduleStates[i];
+            assertEquals(e.speedMetersPerSecond, a.speedMetersPerSecond, kTolerance,
+                    context + " module " + i + " speed");
+            // Compare headings as unit vectors so +pi and -pi count as the same angle
+            assertEquals(e.angle.getCos(), a.angle.getCos(), kTolerance,
+                    context + " module " + i + " cos");
+            assertEquals(e.angle.getSin(), a.angle.getSin(), kTolerance,
+                    context + " module " + i + " sin");
+        }
+    }
+
+    private static SwerveSetpoint emptySetpoint() {
+        return new SwerveSetpoint(new ChassisSpeeds(), new SwerveModuleState[] {
+                new SwerveModuleState(), new SwerveModuleState(), new SwerveModuleState(),
+                new SwerveModuleState() });
+    }
+
+    private static SwerveSetpoint copy(SwerveSetpoint setpoint) {
+        SwerveModuleState[] states = new SwerveModuleState[setpoint.moduleStates.length];
+        for (int i = 0; i < states.length; i++) {
+            states[i] = new SwerveModuleState(setpoint.moduleStates[i].speedMetersPerSecond,
+                    setpoint.moduleStates[i].angle);
+        }
+        ChassisSpeeds speeds = setpoint.chassisSpeeds;
+        return new SwerveSetpoint(new ChassisSpeeds(speeds.vxMetersPerSecond,
+                speeds.vyMetersPerSecond, speeds.omegaRadiansPerSecond), states);
+    }
+}